@@ -0,0 +1,363 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CancellationException;
+
+/**
+ * This class extends DijkstraGraph to answer point to point shortest path
+ * queries with A* search, using landmarks and the triangle inequality (ALT) to
+ * compute lower bounds on the remaining cost of a path. For every landmark L,
+ * the cost of the shortest path from L to each node and from each node to L
+ * is computed ahead of time. Then for any nodes v and t:
+ *
+ *   cost(v, t) >= cost(L, t) - cost(L, v)   and
+ *   cost(v, t) >= cost(v, L) - cost(t, L)
+ *
+ * The largest of these bounds steers the search towards t, so far fewer nodes
+ * are settled than by Dijkstra's algorithm while still returning a shortest
+ * path. No coordinates are needed for these bounds.
+ *
+ * The landmark tables are computed the first time they are needed after the
+ * graph changes, and can be saved to and loaded from a file to avoid that
+ * preprocessing at startup.
+ */
+public class ALTGraph<NodeType, EdgeType extends Number> extends DijkstraGraph<NodeType, EdgeType> {
+
+    protected static final int DEFAULT_LANDMARK_COUNT = 4;
+    // identifies landmark files written by saveLandmarks
+    protected static final int FILE_MAGIC = 0x414c5431;
+
+    protected int landmarkCount;
+    // ids of the landmark nodes, or null when the tables must be recomputed
+    protected int[] landmarks = null;
+    // fromLandmark[i][v] is the cost from landmark i to node v, and
+    // toLandmark[i][v] the cost from node v to landmark i
+    protected double[][] fromLandmark;
+    protected double[][] toLandmark;
+
+    /**
+     * Creates an empty graph that uses four landmarks.
+     */
+    public ALTGraph() {
+        this(DEFAULT_LANDMARK_COUNT);
+    }
+
+    /**
+     * Creates an empty graph that uses the provided number of landmarks. More
+     * landmarks give tighter bounds but cost more memory and preprocessing.
+     *
+     * @param landmarkCount the number of landmarks to select, at least 1
+     * @throws IllegalArgumentException if landmarkCount is less than 1
+     */
+    public ALTGraph(int landmarkCount) {
+        if (landmarkCount < 1)
+            throw new IllegalArgumentException("at least one landmark is required");
+        this.landmarkCount = landmarkCount;
+    }
+
+    @Override
+    public boolean insertNode(NodeType data) {
+        boolean inserted = super.insertNode(data);
+        if (inserted)
+            landmarks = null;
+        return inserted;
+    }
+
+    @Override
+    public boolean removeNode(NodeType data) {
+        boolean removed = super.removeNode(data);
+        if (removed)
+            landmarks = null;
+        return removed;
+    }
+
+    @Override
+    public boolean insertEdge(NodeType pred, NodeType succ, EdgeType weight) {
+        boolean inserted = super.insertEdge(pred, succ, weight);
+        if (inserted)
+            landmarks = null;
+        return inserted;
+    }
+
+    @Override
+    public void insertEdges(List<NodeType> preds, List<NodeType> succs, List<EdgeType> weights) {
+        super.insertEdges(preds, succs, weights);
+        landmarks = null;
+    }
+
+    @Override
+    public boolean removeEdge(NodeType pred, NodeType succ) {
+        boolean removed = super.removeEdge(pred, succ);
+        if (removed)
+            landmarks = null;
+        return removed;
+    }
+
+    /**
+     * Selects the landmarks and computes their distance tables. Landmarks
+     * are chosen one at a time as the node farthest from all landmarks
+     * selected so far, preferring nodes that no landmark can reach yet.
+     * This is called automatically by the first query after the graph
+     * changes.
+     */
+    public void preprocessLandmarks() {
+        int nodeCount = nodeList.size();
+        int count = Math.min(landmarkCount, nodeCount);
+        int[] selected = new int[count];
+        double[][] from = new double[count][];
+        double[][] to = new double[count][];
+        // the smallest cost from any selected landmark to each node
+        double[] nearest = new double[nodeCount];
+        Arrays.fill(nearest, Double.POSITIVE_INFINITY);
+
+        int next = 0;
+        for (int i = 0; i < count; i++) {
+            selected[i] = next;
+            from[i] = distances(nodeList.get(next), false);
+            to[i] = distances(nodeList.get(next), true);
+            for (int v = 0; v < nodeCount; v++)
+                nearest[v] = Math.min(nearest[v], from[i][v]);
+            // unreached nodes sort above every finite distance
+            for (int v = 0; v < nodeCount; v++)
+                if (nearest[v] > nearest[next])
+                    next = v;
+        }
+        fromLandmark = from;
+        toLandmark = to;
+        landmarks = selected;
+    }
+
+    /**
+     * Computes the cost of the shortest path from source to every node, or
+     * from every node to source when backward is true.
+     *
+     * @param source   the node to compute distances from or to
+     * @param backward true to follow edges against their direction
+     * @return the costs indexed by node id, with infinity for nodes that are
+     *         not connected to source
+     */
+    protected double[] distances(Node source, boolean backward) {
+        double[] cost = new double[nodeList.size()];
+        Arrays.fill(cost, Double.POSITIVE_INFINITY);
+        IndexedMinHeap queue = new IndexedMinHeap(nodeList.size());
+        cost[source.id] = 0;
+        queue.insertOrDecrease(source.id, 0);
+        while (!queue.isEmpty()) {
+            Node node = nodeList.get(queue.removeMin());
+            for (Edge edge : backward ? node.edgesEntering : node.edgesLeaving) {
+                Node other = backward ? edge.predecessor : edge.successor;
+                double newCost = cost[node.id] + edge.data.doubleValue();
+                if (newCost < cost[other.id]) {
+                    cost[other.id] = newCost;
+                    queue.insertOrDecrease(other.id, newCost);
+                }
+            }
+        }
+        return cost;
+    }
+
+    /**
+     * Returns a lower bound on the cost of the shortest path from node v to
+     * node t, or infinity when the landmark tables show that t cannot be
+     * reached from v.
+     *
+     * @param v the id of the node the remaining path starts at
+     * @param t the id of the destination node
+     * @return a lower bound on cost(v, t)
+     */
+    protected double lowerBound(int v, int t) {
+        double bound = 0;
+        for (int i = 0; i < landmarks.length; i++) {
+            double[] from = fromLandmark[i];
+            double[] to = toLandmark[i];
+            // cost(L, t) <= cost(L, v) + cost(v, t), which says nothing
+            // when L cannot reach v, and rules t out when L reaches v but not t
+            if (from[v] != Double.POSITIVE_INFINITY) {
+                if (from[t] == Double.POSITIVE_INFINITY)
+                    return Double.POSITIVE_INFINITY;
+                bound = Math.max(bound, from[t] - from[v]);
+            }
+            // cost(v, L) <= cost(v, t) + cost(t, L), which says nothing when t
+            // cannot reach L, and rules t out when t reaches L but v does not
+            if (to[t] != Double.POSITIVE_INFINITY) {
+                if (to[v] == Double.POSITIVE_INFINITY)
+                    return Double.POSITIVE_INFINITY;
+                bound = Math.max(bound, to[v] - to[t]);
+            }
+        }
+        return bound;
+    }
+
+    /**
+     * This helper method computes the shortest path between the provided
+     * start and end locations with A* search. Nodes are queued by the cost of
+     * their path from start plus the landmark lower bound on their remaining
+     * cost to end. Since these bounds never overestimate and never drop by
+     * more than an edge's weight along that edge, the first time a node is
+     * settled its path is final, just like in Dijkstra's algorithm.
+     *
+     * @param start the data item in the starting node for the path
+     * @param end   the data item in the destination node for the path
+     * @param token stops the search once it is cancelled or expires
+     * @return SearchNode for the final end node within the shortest path
+     * @throws NoSuchElementException when no path from start to end is found
+     *                                or when either start or end data do not
+     *                                correspond to a graph node
+     * @throws CancellationException  when the token stopped the search
+     */
+    @Override
+    protected SearchNode computeShortestPath(NodeType start, NodeType end,
+            CancellationToken token) {
+        Node startNode = nodes.getOrDefault(start, null);
+        Node endNode = nodes.getOrDefault(end, null);
+        if (startNode == null || endNode == null)
+            throw new NoSuchElementException();
+        if (landmarks == null)
+            preprocessLandmarks();
+
+        int nodeCount = nodeList.size();
+        int target = endNode.id;
+        SearchNode[] reached = newSearchNodes(nodeCount);
+        // lower bound of each reached node, computed once when first reached
+        double[] bounds = new double[nodeCount];
+        IndexedMinHeap queue = new IndexedMinHeap(nodeCount);
+
+        bounds[startNode.id] = lowerBound(startNode.id, target);
+        if (bounds[startNode.id] == Double.POSITIVE_INFINITY)
+            throw new NoSuchElementException();
+        reached[startNode.id] = new SearchNode(startNode, 0, null, 0);
+        queue.insertOrDecrease(startNode.id, bounds[startNode.id]);
+        int settled = 0;
+
+        while (!queue.isEmpty()) {
+            SearchNode current = reached[queue.removeMin()];
+            token.check(++settled);
+            if (current.node.id == target)
+                return current;
+
+            for (Edge edge : current.node.edgesLeaving) {
+                int next = edge.successor.id;
+                double cost = current.cost + edge.data.doubleValue();
+                if (reached[next] == null) {
+                    bounds[next] = lowerBound(next, target);
+                    // skip nodes that the landmarks prove cannot reach end
+                    if (bounds[next] == Double.POSITIVE_INFINITY)
+                        continue;
+                    reached[next] = new SearchNode(edge.successor, cost, current,
+                            edge.data.doubleValue());
+                } else if (cost < reached[next].cost && queue.contains(next)) {
+                    reached[next].cost = cost;
+                    reached[next].predecessor = current;
+                    reached[next].legCost = edge.data.doubleValue();
+                } else {
+                    continue;
+                }
+                queue.insertOrDecrease(next, cost + bounds[next]);
+            }
+        }
+        throw new NoSuchElementException();
+    }
+
+    /**
+     * Writes the landmark tables to a file, computing them first if needed.
+     * The file records the data of every node and a checksum of the edges,
+     * so that loadLandmarks can check it still matches the graph.
+     *
+     * @param filename the path of the file to write
+     * @throws IOException if the file could not be written
+     */
+    public void saveLandmarks(String filename) throws IOException {
+        if (landmarks == null)
+            preprocessLandmarks();
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(new FileOutputStream(filename)))) {
+            out.writeInt(FILE_MAGIC);
+            out.writeInt(nodeList.size());
+            out.writeLong(edgeChecksum());
+            out.writeInt(landmarks.length);
+            for (Node node : nodeList)
+                out.writeUTF(node.data.toString());
+            for (int i = 0; i < landmarks.length; i++) {
+                out.writeInt(landmarks[i]);
+                for (int v = 0; v < nodeList.size(); v++)
+                    out.writeDouble(fromLandmark[i][v]);
+                for (int v = 0; v < nodeList.size(); v++)
+                    out.writeDouble(toLandmark[i][v]);
+            }
+        }
+    }
+
+    /**
+     * Replaces the landmark tables with those saved by saveLandmarks. The
+     * nodes of this graph may have different ids than when the file was
+     * written, as long as the same nodes and edges are present.
+     *
+     * @param filename the path of the file to read
+     * @throws IOException if the file could not be read, or was written for
+     *                     a graph with different nodes or edges
+     */
+    public void loadLandmarks(String filename) throws IOException {
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(new FileInputStream(filename)))) {
+            if (in.readInt() != FILE_MAGIC)
+                throw new IOException(filename + " is not a landmark file");
+            int nodeCount = in.readInt();
+            long checksum = in.readLong();
+            if (nodeCount != nodeList.size() || checksum != edgeChecksum())
+                throw new IOException(filename + " does not match the nodes and edges of this graph");
+            int count = in.readInt();
+
+            // map each id in the file to the id of the same node in this graph
+            HashMap<String, Integer> idsByName = new HashMap<>();
+            for (Node node : nodeList)
+                idsByName.put(node.data.toString(), node.id);
+            int[] ids = new int[nodeCount];
+            for (int v = 0; v < nodeCount; v++) {
+                Integer id = idsByName.get(in.readUTF());
+                if (id == null)
+                    throw new IOException(filename + " does not match the nodes of this graph");
+                ids[v] = id;
+            }
+
+            int[] selected = new int[count];
+            double[][] from = new double[count][nodeCount];
+            double[][] to = new double[count][nodeCount];
+            for (int i = 0; i < count; i++) {
+                selected[i] = ids[in.readInt()];
+                for (int v = 0; v < nodeCount; v++)
+                    from[i][ids[v]] = in.readDouble();
+                for (int v = 0; v < nodeCount; v++)
+                    to[i][ids[v]] = in.readDouble();
+            }
+            fromLandmark = from;
+            toLandmark = to;
+            landmarks = selected;
+        }
+    }
+
+    /**
+     * Computes a checksum of every edge's endpoints and weight that does not
+     * depend on node ids or on the order edges were inserted in.
+     *
+     * @return the checksum of this graph's edges
+     */
+    protected long edgeChecksum() {
+        long checksum = 0;
+        for (Node node : nodeList)
+            for (Edge edge : node.edgesLeaving) {
+                long hash = 31L * edge.predecessor.data.toString().hashCode()
+                        + edge.successor.data.toString().hashCode();
+                checksum += hash * 1000003L + Double.hashCode(edge.data.doubleValue());
+            }
+        return checksum;
+    }
+
+}
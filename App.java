@@ -1,9 +1,16 @@
+import java.io.IOException;
+import java.util.Arrays;
 import javafx.application.Application;
 
 public class App {
-  public static void main(String[] args) {
+  public static void main(String[] args) throws IOException {
     System.out.println("v0.1");
-    Frontend.setBackend(new Backend(new DijkstraGraph()));
+    if (args.length > 0 && args[0].equals("--server")) {
+      // serve the backend over HTTP instead of showing the JavaFX frontend
+      RoutingServer.main(Arrays.copyOfRange(args, 1, args.length));
+      return;
+    }
+    Frontend.setBackend(new Backend(new ConcurrentGraph<>()));
     Application.launch(Frontend.class, args);
   }
 }
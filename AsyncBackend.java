@@ -0,0 +1,231 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+
+/**
+ * An AsyncBackend runs the queries of a BackendInterface on background threads, so that a caller
+ * such as the JavaFX application thread never waits for a search. Every method returns a
+ * CompletableFuture right away, which completes with the answer once the query has run.
+ *
+ * Queries of the same kind supersede each other: asking for a new shortest path cancels the
+ * shortest path query asked for before it, if that one has not completed yet. A cancelled query
+ * never completes its future with an answer, so a slow old answer cannot overwrite a newer one.
+ * Each query searches with a CancellationToken that is cancelled along with its future, so the
+ * search of a cancelled query stops using CPU right away, and a query that has not started yet is
+ * skipped.
+ */
+public class AsyncBackend {
+
+  protected BackendInterface backend;
+  protected ExecutorService executor;
+  // the latest query of each kind, which the next query of the same kind cancels
+  private Map<String, CompletableFuture<?>> latest = new ConcurrentHashMap<>();
+
+  /**
+   * Runs the queries of the provided backend on a new query executor.
+   *
+   * @param backend the backend that answers the queries
+   * @see #newQueryExecutor()
+   */
+  public AsyncBackend(BackendInterface backend) {
+    this(backend, newQueryExecutor());
+  }
+
+  /**
+   * Runs the queries of the provided backend on the provided executor.
+   *
+   * @param backend  the backend that answers the queries
+   * @param executor the executor to run queries on
+   */
+  public AsyncBackend(BackendInterface backend, ExecutorService executor) {
+    this.backend = backend;
+    this.executor = executor;
+  }
+
+  /**
+   * Creates an executor that runs every task on a thread of its own. Virtual threads are used
+   * when the Java runtime has them, since queries are short and there may be many at once.
+   * Otherwise threads are pooled and reused. The threads never keep the program from exiting.
+   *
+   * @return a new executor for queries
+   */
+  public static ExecutorService newQueryExecutor() {
+    try {
+      return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor")
+          .invoke(null);
+    } catch (ReflectiveOperationException e) {
+      // this runtime is older than Java 21
+      return Executors.newCachedThreadPool(task -> {
+        Thread thread = new Thread(task, "query");
+        thread.setDaemon(true);
+        return thread;
+      });
+    }
+  }
+
+  /**
+   * Returns the backend that answers the queries.
+   *
+   * @return the wrapped backend
+   */
+  public BackendInterface getBackend() {
+    return backend;
+  }
+
+  /**
+   * Loads graph data from a dot file in the background. Loading is never superseded.
+   *
+   * @param filename the path to a dot file to read graph data from
+   * @return a future that completes once the data is loaded, or completes exceptionally with an
+   * UncheckedIOException if there was a problem reading in the specified file
+   */
+  public CompletableFuture<Void> loadGraphData(String filename) {
+    return CompletableFuture.runAsync(() -> {
+      try {
+        backend.loadGraphData(filename);
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }, executor);
+  }
+
+  /**
+   * Suggests locations for partly typed or misspelled text, superseding the previous suggestion
+   * query.
+   *
+   * @param text  the text typed so far
+   * @param limit the largest number of locations to suggest
+   * @return a future for up to limit location names that start with or are similar to text
+   * @see BackendInterface#suggestLocations
+   */
+  public CompletableFuture<List<String>> suggestLocations(String text, int limit) {
+    return submit("suggestLocations", token -> backend.suggestLocations(text, limit));
+  }
+
+  /**
+   * Finds the shortest path from startLocation to endLocation, superseding the previous shortest
+   * path query.
+   *
+   * @param startLocation the start location of the path
+   * @param endLocation   the end location of the path
+   * @return a future for the nodes along the shortest path, or an empty list if no such path
+   * exists
+   * @see BackendInterface#findShortestPath
+   */
+  public CompletableFuture<List<String>> findShortestPath(String startLocation,
+      String endLocation) {
+    return submit("findShortestPath",
+        token -> backend.findShortestPathResult(startLocation, endLocation, token).getNodes());
+  }
+
+  /**
+   * Finds the walking times along the shortest path from startLocation to endLocation,
+   * superseding the previous shortest path query.
+   *
+   * @param startLocation the start location of the path
+   * @param endLocation   the end location of the path
+   * @return a future for the walking times in seconds between two nodes along the shortest path,
+   * or an empty list if no such path exists
+   * @see BackendInterface#getTravelTimesOnPath
+   */
+  public CompletableFuture<List<Double>> getTravelTimesOnPath(String startLocation,
+      String endLocation) {
+    return submit("findShortestPath",
+        token -> backend.findShortestPathResult(startLocation, endLocation, token).getLegCosts());
+  }
+
+  /**
+   * Finds the shortest path from startLocation to endLocation together with its walking times,
+   * superseding the previous shortest path query.
+   *
+   * @param startLocation the start location of the path
+   * @param endLocation   the end location of the path
+   * @return a future for the PathResult of the shortest path, which is empty if no such path
+   * exists
+   * @see BackendInterface#findShortestPathResult
+   */
+  public CompletableFuture<PathResult<String>> findShortestPathResult(String startLocation,
+      String endLocation) {
+    return submit("findShortestPath",
+        token -> backend.findShortestPathResult(startLocation, endLocation, token));
+  }
+
+  /**
+   * Finds the shortest paths between many pairs of locations. Batches never supersede each
+   * other.
+   *
+   * @param pairs the start location (key) and end location (value) of each path to find
+   * @return a future for the PathResult of each pair, in the order of pairs
+   * @see BackendInterface#findShortestPaths
+   */
+  public CompletableFuture<List<PathResult<String>>> findShortestPaths(
+      List<Map.Entry<String, String>> pairs) {
+    return submit(null, token -> backend.findShortestPaths(pairs, token));
+  }
+
+  /**
+   * Finds all locations within timesInSec walking time of startLocation, superseding the
+   * previous reachable locations query.
+   *
+   * @param startLocation the start location
+   * @param timesInSec    the maximum walking time for a destination to be included in the list
+   * @return a future for the reachable locations
+   * @see BackendInterface#getReachableLocations
+   */
+  public CompletableFuture<List<String>> getReachableLocations(String startLocation,
+      double timesInSec) {
+    return submit("getReachableLocations",
+        token -> backend.getReachableLocations(startLocation, timesInSec, token));
+  }
+
+  /**
+   * Stops accepting queries, and interrupts the threads of the queries that are still running.
+   */
+  public void shutdown() {
+    executor.shutdownNow();
+  }
+
+  /**
+   * Runs a query on the executor, and cancels the latest query of the same kind.
+   *
+   * @param kind  the kind of query, or null if the query supersedes nothing
+   * @param query the query to run, given the token that is cancelled with its future
+   * @return a future for the answer of the query
+   */
+  private <T> CompletableFuture<T> submit(String kind, Function<CancellationToken, T> query) {
+    CompletableFuture<T> answer = new CompletableFuture<>();
+    CancellationToken token = new CancellationToken();
+    executor.execute(() -> {
+      if (answer.isDone()) {
+        // cancelled before it started
+        return;
+      }
+      try {
+        answer.complete(query.apply(token));
+      } catch (Throwable e) {
+        answer.completeExceptionally(e);
+      }
+    });
+    answer.whenComplete((value, failure) -> {
+      if (answer.isCancelled()) {
+        token.cancel();
+      }
+    });
+    if (kind != null) {
+      CompletableFuture<?> previous = latest.put(kind, answer);
+      if (previous != null) {
+        previous.cancel(false);
+      }
+      // forget finished queries, unless a newer one of the same kind has replaced them already
+      answer.whenComplete((value, failure) -> latest.remove(kind, answer));
+    }
+    return answer;
+  }
+
+}
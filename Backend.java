@@ -1,87 +1,394 @@
-import java.io.FileReader;
+import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicReference;
 
 public class Backend implements BackendInterface {
 
   GraphADT<String, Double> graph;
-  StringBuilder data = new StringBuilder();
-  List<String> location = new ArrayList<>(); // Initializing a list which will contain all the
-  // locations.
+  // Gives every location read from dot files a dense id, in the order they first appear. Only the
+  // thread that loads graph data uses it; queries read the locations published in state instead.
+  LocationDictionary locations = new LocationDictionary();
+  // Dot files of at least this many bytes are parsed on several threads.
+  static final long PARALLEL_LOAD_BYTES = 16 << 20;
+  // Shares the instances of location names with other backends, or null if they are not shared.
+  NamePool names = null;
+  // Everything that queries read. Loads and engine changes build a new State and replace this one
+  // once they are done, so a query never sees the engine of one load with the locations of another.
+  private final AtomicReference<State> state;
+
+  /**
+   * The engine, mapped graph and locations that queries read, as they were at the end of the last
+   * load or engine change. A State never changes; the index of location names, which is built on
+   * first use, is added by publishing a copy that holds it.
+   */
+  private static final class State {
+    // Answers the shortest path queries. This is the graph itself, unless a faster read-only engine
+    // has been built from it.
+    final ShortestPathADT<String> engine;
+    // The graph mapped from a binary graph file, or null when the graph data was read from dot
+    // files.
+    final CSRGraph<String> mappedGraph;
+    // The names of all locations, in the order they first appear.
+    final List<String> locations;
+    // Suggests location names while they are typed, or null until it is first needed.
+    final LocationIndex locationIndex;
+
+    State(ShortestPathADT<String> engine, CSRGraph<String> mappedGraph, List<String> locations,
+        LocationIndex locationIndex) {
+      this.engine = engine;
+      this.mappedGraph = mappedGraph;
+      this.locations = locations;
+      this.locationIndex = locationIndex;
+    }
+
+    State withEngine(ShortestPathADT<String> engine) {
+      return new State(engine, mappedGraph, locations, locationIndex);
+    }
+
+    State withLocationIndex(LocationIndex locationIndex) {
+      return new State(engine, mappedGraph, locations, locationIndex);
+    }
+  }
 
   public Backend(GraphADT<String, Double> graph) {
     this.graph = graph;
+    this.state = new AtomicReference<>(new State(graph, null, List.of(), null));
   }
 
   /**
-   * Loads graph data from a dot file.
+   * Creates a backend that takes the name of every location it reads from the provided pool, so
+   * that locations it has in common with other backends using the same pool are only held in
+   * memory once. Names read from a mapped binary graph file stay in that file and are not pooled.
    *
-   * @param filename the path to a dot file to read graph data from
+   * @param graph the graph to read graph data into
+   * @param names the pool of location names shared with other backends
+   */
+  public Backend(GraphADT<String, Double> graph, NamePool names) {
+    this(graph);
+    this.names = names;
+  }
+
+  /**
+   * Loads graph data from a dot file, or maps a binary graph file written by saveGraphFile or
+   * MappedCSRGraph. A binary graph file is not read into the backend's graph: queries run directly
+   * against the mapped file, so loading it takes the same short time for any size of graph, and
+   * any graph data loaded before is removed from the backend's graph.
+   *
+   * @param filename the path to a dot file or binary graph file to read graph data from
    * @throws IOException if there was a problem reading in the specified file
    */
-  public void loadGraphData(String filename) throws IOException {
+  public synchronized void loadGraphData(String filename) throws IOException {
+    State next;
+    beginUpdate();
     try {
-      // Reading the dot file.
-      FileReader reader = new FileReader(filename);
-      int count = reader.read();
+      next = readGraphData(filename);
+    } finally {
+      endUpdate();
+    }
+    state.set(next);
+  }
 
-      while (count != -1) {
-        data.append((char) count);
-        count = reader.read();
+  /**
+   * Reads the graph data of a dot file or binary graph file, as described for loadGraphData.
+   *
+   * @param filename the path to a dot file or binary graph file to read graph data from
+   * @return the state to publish for queries about the graph data read so far
+   * @throws IOException if there was a problem reading in the specified file
+   */
+  private State readGraphData(String filename) throws IOException {
+    // Any engine or index built from the old graph data would give outdated answers, so the new
+    // state starts without them.
+    try {
+      if (MappedCSRGraph.isGraphFile(filename)) {
+        MappedCSRGraph mapped = MappedCSRGraph.load(filename);
+        // The old graph data is removed from the backend's graph, which stays empty while the
+        // mapped file is loaded, so that a later reload has nothing of it left to remove.
+        for (String name : locations.retain(name -> false)) {
+          graph.removeNode(name);
+        }
+        return new State(mapped, mapped, mapped.getNames(), null);
+      }
+    } catch (IOException io) {
+      throw new IOException("Wrong file input", io);
+    }
+    if ((graph instanceof BaseGraph || graph instanceof ConcurrentGraph)
+        && new File(filename).length() >= PARALLEL_LOAD_BYTES) {
+      loadGraphDataInParallel(filename);
+      return graphState();
+    }
+    // The file is parsed one line at a time, and each location and edge is added to the graph as
+    // soon as its line is read.
+    DotParser parser = new DotParser(new DotParser.Handler() {
+      public void node(String name) {
+        addLocation(name);
       }
-      reader.close();
 
+      public void edge(String pred, String succ, double seconds) {
+        addLocation(pred);
+        addLocation(succ);
+        graph.insertEdge(pred, succ, seconds);
+      }
+    });
+    try {
+      parser.parse(filename);
+    } catch (IOException io) {
+      throw new IOException("Wrong file input", io);
+    }
+    return graphState();
+  }
+
+  /**
+   * Returns a state in which queries search the backend's graph directly, with a copy of the
+   * locations read so far.
+   *
+   * @return the state to publish after the backend's graph changed
+   */
+  private State graphState() {
+    return new State(graph, null, List.copyOf(locations.getNames()), null);
+  }
+
+  /**
+   * Parses a large dot file on every available core, and then inserts the locations and edges of
+   * each range of the file into the graph in one bulk step, without copying its statements.
+   *
+   * @param filename the path to a dot file to read graph data from
+   * @throws IOException if there was a problem reading in the specified file
+   */
+  @SuppressWarnings("unchecked")
+  private void loadGraphDataInParallel(String filename) throws IOException {
+    List<ParallelDotLoader.Statements> ranges;
+    try {
+      ranges = new ParallelDotLoader().load(filename);
     } catch (IOException io) {
-      throw new IOException("Wrong file input");
-    }
-    // Using regex to filter out locations and the weights.
-    Pattern locationMatch = Pattern.compile("\"[\\w+\\s.'-?&]+?\"");
-    Matcher locationMatcher = locationMatch.matcher(data);
-    Pattern weightMatch = Pattern.compile("=[\\d+?.]+");
-    Matcher weightMatcher = weightMatch.matcher(data);
-
-    // Initializing an integer which will allow us to group the edges.
-    int i = 0;
-    while (locationMatcher.find()) {
-      String locationString = locationMatcher.group();
-      location.add(locationString.substring(1, locationString.length() - 1));
-      // Inserting locations to the graph
-      graph.insertNode(location.get(i));
-      i++;
-      // Reading a weight for every two location we read.
-      if (i % 2 == 0) {
-        weightMatcher.find();
-        String weightString = weightMatcher.group().substring(1);
-        double weight = Double.parseDouble(weightString);
-        // Inserting the edge to the graph.
-        graph.insertEdge(location.get(i - 2), location.get(i - 1), weight);
+      throw new IOException("Wrong file input", io);
+    }
+    for (int r = 0; r < ranges.size(); r++) {
+      ParallelDotLoader.Statements statements = ranges.get(r);
+      // Locations are added in the order a sequential load would add them.
+      int node = 0;
+      for (int i = 0; i < statements.size(); i++) {
+        for (; node < statements.getNodeCount() && statements.getNodePosition(node) == i; node++) {
+          addLocation(statements.getNode(node));
+        }
+        addLocation(statements.getPred(i));
+        addLocation(statements.getSucc(i));
+      }
+      for (; node < statements.getNodeCount(); node++) {
+        addLocation(statements.getNode(node));
       }
+      if (graph instanceof ConcurrentGraph) {
+        ((ConcurrentGraph<String>) graph).insertEdges(statements.getPreds(), statements.getSuccs(),
+            statements.getWeights());
+      } else {
+        ((BaseGraph<String, Double>) graph).insertEdges(statements.getPreds(),
+            statements.getSuccs(), statements.getWeights());
+      }
+      // Each range is released once its edges are in the graph.
+      ranges.set(r, null);
     }
+  }
 
+  /**
+   * Replaces the loaded graph data with the graph data of a dot file or binary graph file, by
+   * applying only the differences between them to the backend's graph: locations and edges that
+   * are new are inserted, edges whose walking time changed are updated, and locations and edges
+   * that are no longer in the file are removed. Locations that stay keep their place in the list
+   * of all locations. Engines built from the old graph data and any previously mapped graph file
+   * are released, and the new file is only held while it is compared.
+   *
+   * @param filename the path to a dot file or binary graph file to read graph data from
+   * @return the changes that were applied to the graph
+   * @throws IOException if there was a problem reading in the specified file
+   * @throws IllegalStateException if the backend's graph is neither a BaseGraph nor a
+   *     ConcurrentGraph, so its edges cannot be listed to find the ones to remove
+   */
+  public synchronized GraphDiff reloadGraphData(String filename) throws IOException {
+    CSRGraph<String> next = readSnapshot(filename);
+    GraphDiff diff;
+    beginUpdate();
+    try {
+      diff = applyGraphData(next);
+    } finally {
+      endUpdate();
+    }
+    state.set(graphState());
+    return diff;
   }
 
   /**
-   * Returns a list of all locations (nodes) available on the backend's graph.
+   * Applies the differences between the loaded graph data and a snapshot to the backend's graph,
+   * as described for reloadGraphData.
    *
-   * @return list of all location names
+   * @param next the snapshot of the graph data to change the loaded graph data into
+   * @return the changes that were applied to the graph
+   * @throws IllegalStateException if the backend's graph cannot be copied into a snapshot
    */
-  public List<String> getListOfAllLocations() {
-    int i = 0;
-    List<String> listOfAllLocations = new ArrayList<>();
-    // Using a while loop to iterate through the list location.
-    while (i < location.size()) {
-      // Adding the unique locations from list location to the list listOfAllLocations.
-      if (!listOfAllLocations.contains(location.get(i))) {
-        listOfAllLocations.add(location.get(i));
+  private GraphDiff applyGraphData(CSRGraph<String> next) {
+    // The edges to remove are found in a snapshot of the old graph, which is taken before anything
+    // changes. A mapped graph was never read into the backend's graph, which was emptied when the
+    // file was mapped, so it has none to remove.
+    boolean mapped = state.get().mappedGraph != null;
+    CSRGraph<String> old = mapped ? null : freezeGraph();
+
+    GraphDiff diff = new GraphDiff();
+    for (int id = 0; id < next.getNodeCount(); id++) {
+      if (!locations.contains(next.getData(id))) {
+        addLocation(next.getData(id));
+        diff.addedLocations++;
+      }
+    }
+    for (int id = 0; id < next.getNodeCount(); id++) {
+      String pred = next.getData(id);
+      for (int edge = next.edgesStart(id); edge < next.edgesEnd(id); edge++) {
+        String succ = next.getData(next.edgeTarget(edge));
+        double weight = next.edgeWeight(edge);
+        if (!graph.containsEdge(pred, succ)) {
+          graph.insertEdge(pred, succ, weight);
+          diff.insertedEdges++;
+        } else if (graph.getEdge(pred, succ) != weight) {
+          graph.insertEdge(pred, succ, weight);
+          diff.reweightedEdges++;
+        }
+      }
+    }
+    if (old != null) {
+      for (int id = 0; id < old.getNodeCount(); id++) {
+        String pred = old.getData(id);
+        for (int edge = old.edgesStart(id); edge < old.edgesEnd(id); edge++) {
+          String succ = old.getData(old.edgeTarget(edge));
+          if (!next.containsNode(pred) || !next.containsNode(succ)) {
+            // removed below together with its location
+            diff.removedEdges++;
+          } else if (!next.containsEdge(pred, succ)) {
+            graph.removeEdge(pred, succ);
+            diff.removedEdges++;
+          }
+        }
+      }
+    }
+    for (String name : locations.retain(next::containsNode)) {
+      graph.removeNode(name);
+      diff.removedLocations++;
+    }
+    return diff;
+  }
+
+  /**
+   * Reads a dot file or binary graph file into a read-only snapshot that can be compared with the
+   * loaded graph data.
+   *
+   * @param filename the path to a dot file or binary graph file
+   * @return the snapshot of the graph data in that file
+   * @throws IOException if there was a problem reading in the specified file
+   */
+  private CSRGraph<String> readSnapshot(String filename) throws IOException {
+    try {
+      if (MappedCSRGraph.isGraphFile(filename)) {
+        return MappedCSRGraph.load(filename);
       }
-      i++;
+    } catch (IOException io) {
+      throw new IOException("Wrong file input", io);
+    }
+    DijkstraGraph<String, Double> snapshot = new DijkstraGraph<>();
+    new Backend(snapshot).loadGraphData(filename);
+    return snapshot.freeze();
+  }
+
+  /**
+   * Starts a batch of changes to the backend's graph, so that a ConcurrentGraph publishes all of
+   * them as one new version instead of one version per change.
+   */
+  private void beginUpdate() {
+    if (graph instanceof ConcurrentGraph) {
+      ((ConcurrentGraph<String>) graph).beginUpdate();
+    }
+  }
+
+  /**
+   * Ends a batch of changes started by beginUpdate, and publishes them.
+   */
+  private void endUpdate() {
+    if (graph instanceof ConcurrentGraph) {
+      ((ConcurrentGraph<String>) graph).endUpdate();
+    }
+  }
+
+  /**
+   * Inserts a location into the graph, and remembers it the first time it is seen. The instance
+   * of a new name is taken from the name pool, if the backend has one.
+   *
+   * @param name the name of the location
+   */
+  private void addLocation(String name) {
+    if (names != null && !locations.contains(name)) {
+      name = names.intern(name);
+    }
+    int known = locations.size();
+    if (locations.add(name) == known) {
+      graph.insertNode(name);
     }
+  }
 
-    return listOfAllLocations;
+  /**
+   * Returns a list of all locations (nodes) available on the backend's graph, in the order they
+   * first appear. The list is the one published at the end of the last load, so it is not copied
+   * on each call and later loads do not change it.
+   *
+   * @return unmodifiable list of all location names
+   */
+  public List<String> getListOfAllLocations() {
+    return state.get().locations;
+  }
+
+  /**
+   * Returns whether the backend's graph has a location with the provided name. This looks the name
+   * up in the graph instead of searching the list of all locations.
+   *
+   * @param location the name of the location to look for
+   * @return true if the location is found, false otherwise
+   */
+  public boolean containsLocation(String location) {
+    CSRGraph<String> mappedGraph = state.get().mappedGraph;
+    return mappedGraph != null ? mappedGraph.containsNode(location) : graph.containsNode(location);
+  }
+
+  /**
+   * Suggests locations for partly typed or misspelled text: the locations whose names start with
+   * the text, followed by the locations whose names are most similar to it. The index behind the
+   * suggestions is built once after each load, and each lookup then takes microseconds.
+   *
+   * @param text  the text typed so far
+   * @param limit the largest number of locations to suggest
+   * @return up to limit suggested location names, or an empty list if text is blank
+   */
+  public List<String> suggestLocations(String text, int limit) {
+    State current = state.get();
+    LocationIndex index = current.locationIndex;
+    if (index == null) {
+      index = new LocationIndex(current.locations);
+      // A load that finished meanwhile published a state this index does not belong to.
+      state.compareAndSet(current, current.withLocationIndex(index));
+    }
+    return index.suggest(text, limit);
+  }
+
+  /**
+   * Returns the dictionary of dense location ids for the graph data read from dot files. Loads
+   * change the dictionary, so it must only be used while no graph data is being loaded.
+   *
+   * @return the location dictionary of this backend
+   */
+  public LocationDictionary getLocationDictionary() {
+    return locations;
   }
 
   /**
@@ -94,8 +401,8 @@ public class Backend implements BackendInterface {
    * empty list if no such path exists
    */
   public List<String> findShortestPath(String startLocation, String endLocation) {
-    // Using the shortestPathData method from class graph to find the shortest path.
-    List<String> shortestPath = graph.shortestPathData(startLocation, endLocation);
+    // Using the shortestPathData method from the engine to find the shortest path.
+    List<String> shortestPath = state.get().engine.shortestPathData(startLocation, endLocation);
     return shortestPath;
   }
 
@@ -109,14 +416,115 @@ public class Backend implements BackendInterface {
    * startLocation to endLocation, or an empty list if no such path exists
    */
   public List<Double> getTravelTimesOnPath(String startLocation, String endLocation) {
-    // Initializing shortestPath and travelTimesOnPath.
-    List<String> shortestPath = findShortestPath(startLocation, endLocation);
-    List<Double> travelTimesOnPath = new ArrayList<>();
-    // Using a for loop to find the path cost of all the locations in the shortest path.
-    for (int i = 1; i < shortestPath.size(); i++) {
-      travelTimesOnPath.add(graph.shortestPathCost(shortestPath.get(i - 1), shortestPath.get(i)));
+    // The search that finds the path also records the weight of every edge along it.
+    return new ArrayList<>(findShortestPathResult(startLocation, endLocation).getLegCosts());
+  }
+
+  /**
+   * Returns the locations along the shortest path from startLocation to endLocation together with
+   * the walking time in seconds of each leg and the total walking time up to each location, all
+   * found by a single search.
+   *
+   * @param startLocation the start location of the path
+   * @param endLocation   the end location of the path
+   * @return the PathResult of the shortest path from startLocation to endLocation, which is empty
+   * if no such path exists
+   */
+  public PathResult<String> findShortestPathResult(String startLocation, String endLocation) {
+    return state.get().engine.shortestPathResult(startLocation, endLocation);
+  }
+
+  /**
+   * Returns the same result as findShortestPathResult(startLocation, endLocation), but stops
+   * searching once the provided token is cancelled or its deadline passes. Searches check the token
+   * every CancellationToken.CHECK_INTERVAL settled locations, so a query between two locations
+   * that are not connected stops soon after it is abandoned, instead of searching everything
+   * reachable from startLocation first.
+   *
+   * @param startLocation the start location of the path
+   * @param endLocation   the end location of the path
+   * @param token         the token that stops the search
+   * @return the PathResult of the shortest path from startLocation to endLocation, which is empty
+   * if no such path exists
+   * @throws CancellationException if the token stopped the search
+   */
+  public PathResult<String> findShortestPathResult(String startLocation, String endLocation,
+      CancellationToken token) {
+    return state.get().engine.shortestPathResult(startLocation, endLocation, token);
+  }
+
+  /**
+   * Finds the shortest paths between many pairs of locations at once. The pairs are grouped by
+   * their start location, and each group is answered from a single search from its start that
+   * stops once the end locations of all of its pairs are found, so a start shared by thousands of
+   * pairs is searched from only once. The groups are searched in parallel in the common
+   * ForkJoinPool. When the backend uses a contraction hierarchy or a distance matrix, each pair is
+   * looked up on its own instead, as that is faster than searching the graph.
+   *
+   * @param pairs the start and end location of each path to find
+   * @return the PathResult of the shortest path between each pair, in the order of pairs, which is
+   * empty for pairs without a path
+   */
+  public List<PathResult<String>> findShortestPaths(List<Map.Entry<String, String>> pairs) {
+    return findShortestPaths(pairs, CancellationToken.NONE);
+  }
+
+  /**
+   * Returns the same results as findShortestPaths(pairs), but stops every search once the provided
+   * token is cancelled or its deadline passes.
+   *
+   * @param pairs the start and end location of each path to find
+   * @param token the token that stops the searches
+   * @return the PathResult of the shortest path between each pair, in the order of pairs, which is
+   * empty for pairs without a path
+   * @throws CancellationException if the token stopped the searches
+   */
+  public List<PathResult<String>> findShortestPaths(List<Map.Entry<String, String>> pairs,
+      CancellationToken token) {
+    // every group is answered by the same engine, even if another one is chosen meanwhile
+    ShortestPathADT<String> engine = state.get().engine;
+    boolean pointQueries = engine instanceof ContractionHierarchy
+        || engine instanceof DistanceMatrix;
+    // the positions in pairs of each distinct start location
+    Map<String, List<Integer>> groups = new LinkedHashMap<>();
+    for (int i = 0; i < pairs.size(); i++) {
+      groups.computeIfAbsent(pairs.get(i).getKey(), start -> new ArrayList<>()).add(i);
     }
-    return travelTimesOnPath;
+    // each task only sets the results at the positions of its own group
+    List<PathResult<String>> results = new ArrayList<>(Collections.nCopies(pairs.size(), null));
+    List<RecursiveAction> tasks = new ArrayList<>(groups.size());
+    for (Map.Entry<String, List<Integer>> group : groups.entrySet()) {
+      tasks.add(new RecursiveAction() {
+        protected void compute() {
+          // groups that have not started yet are skipped once the token stops the batch
+          token.throwIfCancelled();
+          String start = group.getKey();
+          if (pointQueries || group.getValue().size() == 1) {
+            for (int i : group.getValue()) {
+              results.set(i, engine.shortestPathResult(start, pairs.get(i).getValue(), token));
+            }
+            return;
+          }
+          List<String> ends = new ArrayList<>(group.getValue().size());
+          for (int i : group.getValue()) {
+            ends.add(pairs.get(i).getValue());
+          }
+          ShortestPathTree<String> tree = null;
+          try {
+            tree = engine.shortestPathTree(start, ends, token);
+          } catch (NoSuchElementException exception) {
+            // start is not a location, so none of its pairs have a path
+          }
+          for (int i : group.getValue()) {
+            String end = pairs.get(i).getValue();
+            results.set(i, tree == null || !tree.contains(end) ? PathResult.empty()
+                : new PathResult<>(tree.getPathTo(end), tree.getLegCostsTo(end)));
+          }
+        }
+      });
+    }
+    ForkJoinTask.invokeAll(tasks);
+    return results;
   }
 
 
@@ -124,26 +532,131 @@ public class Backend implements BackendInterface {
    * Returns all locations that are reachable from startLocation in at most timesInSec walking
    * time.
    *
-   * @param startLocation the maximum walking time for a destination to be included in the list
+   * @param startLocation the start location
+   * @param timesInSec    the maximum walking time for a destination to be included in the list, or
+   *                      Double.POSITIVE_INFINITY for every location that can be reached
+   * @return the locations within timesInSec of startLocation
+   * @throws IllegalArgumentException if timesInSec is negative or NaN
    */
   public List<String> getReachableLocations(String startLocation, double timesInSec) {
-    // initializing reachableLocations and listOfAllLocations.
+    return getReachableLocations(startLocation, timesInSec, CancellationToken.NONE);
+  }
+
+  /**
+   * Returns the same locations as getReachableLocations(startLocation, timesInSec), but stops
+   * searching once the provided token is cancelled or its deadline passes.
+   *
+   * @param startLocation the start location
+   * @param timesInSec    the maximum walking time for a destination to be included in the list
+   * @param token         the token that stops the search
+   * @return the locations within timesInSec of startLocation
+   * @throws IllegalArgumentException if timesInSec is negative or NaN
+   * @throws CancellationException    if the token stopped the search
+   */
+  public List<String> getReachableLocations(String startLocation, double timesInSec,
+      CancellationToken token) {
+    // initializing reachableLocations and listOfAllLocations, both from the same load.
+    State current = state.get();
     List<String> reachableLocations = new ArrayList<>();
-    List<String> listOfAllLocations = getListOfAllLocations();
-    double cost = 0.0;
+    List<String> listOfAllLocations = current.locations;
+    ShortestPathTree<String> tree;
+    try {
+      // One search from startLocation finds every location within the time budget, and stops
+      // before exploring anything further away.
+      tree = current.engine.shortestPathTree(startLocation, timesInSec, token);
+    } catch (NoSuchElementException exception) {
+      return reachableLocations;
+    }
     // Using a for loop to iterate over the listOfAllLocations to get all the locations reachable
     // in those timesInSec.
     for (int i = 0; i < listOfAllLocations.size(); i++) {
-      try{
-        cost = graph.shortestPathCost(startLocation, listOfAllLocations.get(i));
-        if (cost <= timesInSec) {
-          reachableLocations.add(listOfAllLocations.get(i));
-        }
-      }
-      catch (NoSuchElementException exception){
-
+      String location = listOfAllLocations.get(i);
+      if (tree.contains(location)) {
+        reachableLocations.add(location);
       }
     }
     return reachableLocations;
   }
+
+  /**
+   * Builds a contraction hierarchy from the graph data loaded so far, and uses it to answer
+   * findShortestPath and getTravelTimesOnPath from then on. Building the hierarchy takes much longer
+   * than a single search, but every query afterwards only explores a tiny part of the graph. Loading
+   * more graph data switches back to searching the graph directly.
+   *
+   * @throws IllegalStateException if the backend's graph cannot be copied into a CSRGraph
+   */
+  public synchronized void useContractionHierarchy() {
+    state.set(state.get().withEngine(new ContractionHierarchy<>(freezeGraph())));
+  }
+
+  /**
+   * Answers later queries from a DistanceMatrix of every pair of locations
+   * in the loaded graph, computed in parallel. This uses memory for the
+   * square of the number of locations, so it is meant for small campus
+   * graphs.
+   */
+  public synchronized void useDistanceMatrix() {
+    state.set(state.get().withEngine(new DistanceMatrix<>(freezeGraph())));
+  }
+
+  /**
+   * Answers later queries from a DistanceMatrix of every pair of locations
+   * in the loaded graph. The matrix is mapped from the provided file when it
+   * was saved there for this graph; otherwise it is computed and saved to
+   * that file for next time.
+   *
+   * @param filename the path of the matrix file
+   * @throws IOException if a computed matrix could not be saved
+   */
+  public synchronized void useDistanceMatrix(String filename) throws IOException {
+    CSRGraph<String> snapshot = freezeGraph();
+    DistanceMatrix<String> matrix;
+    try {
+      matrix = DistanceMatrix.load(filename, snapshot);
+    } catch (IOException e) {
+      // the file is missing or belongs to a different graph
+      matrix = new DistanceMatrix<>(snapshot);
+      matrix.save(filename);
+    }
+    state.set(state.get().withEngine(matrix));
+  }
+
+  /**
+   * Writes the loaded graph data to a binary graph file, which later calls to loadGraphData can map
+   * instead of parsing a dot file.
+   *
+   * @param filename the path of the graph file to write
+   * @throws IOException if the file could not be written
+   * @throws IllegalStateException if the backend's graph cannot be copied into a CSRGraph
+   */
+  public synchronized void saveGraphFile(String filename) throws IOException {
+    MappedCSRGraph.write(freezeGraph(), filename);
+  }
+
+  /**
+   * Copies the backend's graph into a read-only CSRGraph snapshot, or returns the mapped graph when
+   * the graph data was loaded from a binary graph file, or the latest published snapshot of a
+   * ConcurrentGraph.
+   *
+   * @return the snapshot of the graph
+   * @throws IllegalStateException if the backend's graph is neither a BaseGraph nor a
+   * ConcurrentGraph and no graph file was mapped
+   */
+  @SuppressWarnings("unchecked")
+  protected CSRGraph<String> freezeGraph() {
+    CSRGraph<String> mappedGraph = state.get().mappedGraph;
+    if (mappedGraph != null) {
+      // A mapped graph is already a read-only snapshot.
+      return mappedGraph;
+    }
+    if (graph instanceof ConcurrentGraph) {
+      // A concurrent graph always has a published snapshot of its latest version.
+      return ((ConcurrentGraph<String>) graph).getSnapshot();
+    }
+    if (!(graph instanceof BaseGraph)) {
+      throw new IllegalStateException("Only a BaseGraph can be copied into a CSRGraph");
+    }
+    return ((BaseGraph<String, Double>) graph).freeze();
+  }
 }
@@ -12,8 +12,26 @@ import javafx.scene.layout.VBox;
 import javafx.scene.control.Label;
 import javafx.scene.control.Button;
 
+import java.io.BufferedReader;
+import java.io.File;
 import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 
 public class BackendDeveloperTests extends ApplicationTest{
@@ -65,6 +83,60 @@ public class BackendDeveloperTests extends ApplicationTest{
     assertTrue(travelTimes.stream().allMatch(time -> time > 0));
   }
 
+  /**
+   * Tests the method findShortestPathResult().
+   * @throws IOException if there was a problem reading in the specified file
+   */
+  @Test
+  public void testFindShortestPathResult() throws IOException {
+    backend.loadGraphData("campus.dot");
+    PathResult<String> result =
+        backend.findShortestPathResult("Union South", "Atmospheric, Oceanic and Space Sciences");
+    assertNotNull(result);
+    assertFalse(result.isEmpty());
+    assertEquals(3, result.getNodes().size());
+    assertEquals(List.of(176.0, 127.2), result.getLegCosts());
+    assertEquals(List.of(0.0, 176.0, 303.2), result.getCumulativeCosts());
+    assertEquals(303.2, result.getTotalCost());
+  }
+
+  /**
+   * Tests that findShortestPaths() answers every pair in the order it was asked, including pairs
+   * that share a start and pairs without a path.
+   * @throws IOException if there was a problem reading in the specified file
+   */
+  @Test
+  public void testFindShortestPaths() throws IOException {
+    backend.loadGraphData("campus.dot");
+    List<PathResult<String>> results = backend.findShortestPaths(List.of(
+        Map.entry("Union South", "Atmospheric, Oceanic and Space Sciences"),
+        Map.entry("Memorial Union", "Union South"),
+        Map.entry("Union South", "Computer Sciences and Statistics"),
+        Map.entry("Union South", "Lot 36")));
+    assertEquals(4, results.size());
+    assertEquals(303.2, results.get(0).getTotalCost());
+    assertEquals(backend.findShortestPathResult("Memorial Union", "Union South").getNodes(),
+        results.get(1).getNodes());
+    assertEquals(List.of(0.0, 176.0), results.get(2).getCumulativeCosts());
+    assertTrue(results.get(3).isEmpty());
+
+    // a group's search stops at its farthest end, which must not change any of its paths
+    Backend campus = new Backend(new ConcurrentGraph<>());
+    campus.loadGraphData("campus.dot");
+    List<Map.Entry<String, String>> pairs = new ArrayList<>();
+    for (String end : campus.getListOfAllLocations().subList(0, 10)) {
+      pairs.add(Map.entry("Memorial Union", end));
+    }
+    results = campus.findShortestPaths(pairs);
+    for (int i = 0; i < pairs.size(); i++) {
+      assertEquals(campus.findShortestPathResult("Memorial Union", pairs.get(i).getValue())
+          .getTotalCost(), results.get(i).getTotalCost(), 0.001);
+    }
+    CancellationToken cancelled = new CancellationToken();
+    cancelled.cancel();
+    assertThrows(CancellationException.class, () -> campus.findShortestPaths(pairs, cancelled));
+  }
+
   /**
    * Tests the method getReachableLocations().
    * @throws IOException if there was a problem reading in the specified file
@@ -80,6 +152,407 @@ public class BackendDeveloperTests extends ApplicationTest{
     assertTrue(reachableLocations.contains("Memorial Union"));
   }
 
+  /**
+   * Tests that the DotParser reads edge statements from their seconds attribute, and rejects edges
+   * without one or with one that is negative or not finite.
+   * @throws IOException if a valid line could not be parsed
+   */
+  @Test
+  public void testDotParser() throws IOException {
+    List<String> edges = new ArrayList<>();
+    DotParser parser = new DotParser(new DotParser.Handler() {
+      public void node(String name) {
+        edges.add(name);
+      }
+
+      public void edge(String pred, String succ, double seconds) {
+        edges.add(pred + "->" + succ + "=" + seconds);
+      }
+    });
+    parser.parseLine("digraph campus {");
+    parser.parseLine("\t\"Union South\" -> \"Say \\\"Cheese\\\"\" [color=red, seconds=32.5];");
+    parser.parseLine("  // a comment");
+    parser.parseLine("Lot_36;");
+    parser.parseLine("}");
+    assertEquals(List.of("Union South->Say \"Cheese\"=32.5", "Lot_36"), edges);
+    assertThrows(IOException.class, () -> parser.parseLine("\"A\" -> \"B\";"));
+    for (String seconds : List.of("NaN", "Infinity", "-Infinity", "-1.5")) {
+      assertThrows(IOException.class,
+          () -> parser.parseLine("\"A\" -> \"B\" [seconds=" + seconds + "];"));
+    }
+    // none of the rejected edges reached the handler
+    assertEquals(2, edges.size());
+    parser.parseLine("\"A\" -> \"B\" [seconds=0];");
+    assertEquals("A->B=0.0", edges.get(2));
+  }
+
+  /**
+   * Tests that the ParallelDotLoader splits a file of several megabytes into ranges that start at
+   * the beginning of a line, and that the statements of all ranges together are the statements a
+   * sequential DotParser reads from the whole file, in the same order.
+   * @throws IOException if the test file could not be written or parsed
+   */
+  @Test
+  public void testParallelDotLoader() throws IOException {
+    File file = File.createTempFile("parallel", ".dot");
+    file.deleteOnExit();
+    StringBuilder dot = new StringBuilder("digraph big {\n");
+    for (int i = 0; i < 80000; i++) {
+      if (i % 1000 == 0) {
+        dot.append("\"Caf\u00e9 ").append(i).append("\";\n");
+      }
+      dot.append("\t\"N").append(i % 500).append("\" -> \"N").append(i * 7 % 500)
+          .append("\" [seconds=").append(i % 100 + 0.5).append("];\n");
+    }
+    dot.append("}\n");
+    Files.write(file.toPath(), dot.toString().getBytes(StandardCharsets.UTF_8));
+
+    ParallelDotLoader loader = new ParallelDotLoader(4);
+    try (RandomAccessFile input = new RandomAccessFile(file, "r")) {
+      long[] bounds = loader.split(input.getChannel());
+      assertTrue(bounds.length > 2);
+      assertEquals(input.length(), bounds[bounds.length - 1]);
+      for (int i = 1; i + 1 < bounds.length; i++) {
+        assertTrue(bounds[i] > bounds[i - 1]);
+        input.seek(bounds[i] - 1);
+        assertEquals('\n', input.read());
+      }
+    }
+
+    List<String> expected = new ArrayList<>();
+    new DotParser(new DotParser.Handler() {
+      public void node(String name) {
+        expected.add(name);
+      }
+
+      public void edge(String pred, String succ, double seconds) {
+        expected.add(pred + "->" + succ + "=" + seconds);
+      }
+    }).parse(file.getPath());
+    List<String> actual = new ArrayList<>();
+    for (ParallelDotLoader.Statements range : loader.load(file.getPath())) {
+      int node = 0;
+      for (int i = 0; i < range.size(); i++) {
+        for (; node < range.getNodeCount() && range.getNodePosition(node) == i; node++) {
+          actual.add(range.getNode(node));
+        }
+        assertEquals(range.getSeconds(i), range.getWeights().get(i).doubleValue());
+        actual.add(range.getPred(i) + "->" + range.getSucc(i) + "=" + range.getSeconds(i));
+      }
+      for (; node < range.getNodeCount(); node++) {
+        actual.add(range.getNode(node));
+      }
+    }
+    assertEquals(expected, actual);
+  }
+
+  /**
+   * Tests that the LocationDictionary stores each location once under a dense id, and gives the
+   * remaining locations new ids in their old order after some are removed.
+   */
+  @Test
+  public void testLocationDictionary() {
+    LocationDictionary dictionary = new LocationDictionary();
+    assertEquals(0, dictionary.add("Union South"));
+    assertEquals(1, dictionary.add("Memorial Union"));
+    assertEquals(0, dictionary.add("Union South"));
+    assertEquals(2, dictionary.add("Lot 36"));
+    assertEquals(List.of("Union South", "Memorial Union", "Lot 36"), dictionary.getNames());
+    assertThrows(UnsupportedOperationException.class, () -> dictionary.getNames().add("Lot 17"));
+
+    assertEquals(List.of("Memorial Union"), dictionary.retain(name -> !name.startsWith("M")));
+    assertEquals(1, dictionary.getId("Lot 36"));
+    assertFalse(dictionary.contains("Memorial Union"));
+  }
+
+  /**
+   * Tests that the LocationIndex suggests names that start with the typed text first, and still
+   * finds a name when it is misspelled.
+   */
+  @Test
+  public void testLocationIndex() {
+    LocationIndex index = new LocationIndex(List.of("Union South", "Memorial Union",
+        "Computer Sciences and Statistics", "Medical Sciences Center", "Memorial Library"));
+    assertEquals(List.of("Medical Sciences Center", "Memorial Library", "Memorial Union"),
+        index.prefixMatches("me", 10));
+    assertEquals(List.of("Memorial Union"), index.suggest("memorial u", 1));
+    assertEquals("Memorial Union", index.suggest("Memorail Union", 3).get(0));
+    assertTrue(index.suggest("  ", 3).isEmpty());
+  }
+
+  /**
+   * Tests that the AsyncBackend answers queries in the background, and that a new query cancels
+   * the query of the same kind that is still running.
+   * @throws Exception if a query failed
+   */
+  @Test
+  public void testAsyncBackend() throws Exception {
+    CountDownLatch release = new CountDownLatch(1);
+    AsyncBackend queries = new AsyncBackend(new BackendPlaceholder(null) {
+      public List<String> getReachableLocations(String location, double timesInSec) {
+        try {
+          release.await();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+        return super.getReachableLocations(location, timesInSec);
+      }
+    });
+    CompletableFuture<List<String>> first = queries.getReachableLocations("Union South", 100);
+    CompletableFuture<List<String>> second = queries.getReachableLocations("Union South", 200);
+    assertTrue(first.isCancelled());
+    assertFalse(second.isDone());
+    release.countDown();
+    assertEquals(List.of("Atmospheric, Oceanic and Space Sciences", "Memorial Union"),
+        second.get(5, TimeUnit.SECONDS));
+    assertEquals(256.0, queries.findShortestPathResult("Union South", "Memorial Union")
+        .get(5, TimeUnit.SECONDS).getTotalCost());
+    queries.shutdown();
+  }
+
+  /**
+   * Tests that BatchApp answers a mix of valid and invalid queries on several threads, writing one
+   * CSV or JSON line for each of them in the order of the input.
+   * @throws IOException if there was a problem reading in the specified file
+   */
+  @Test
+  public void testBatchApp() throws IOException {
+    Backend campus = new Backend(new ConcurrentGraph<>());
+    campus.loadGraphData("campus.dot");
+    String queries = "path\tUnion South\tAtmospheric, Oceanic and Space Sciences\n"
+        + "# a comment\n"
+        + "reachable\tNowhere\t100\n"
+        + "\n"
+        + "reachable\tUnion South\t-5\n"
+        + "reachable\tUnion South\tNaN\n"
+        + "reachable\tUnion South\tInfinity\n"
+        + "path\tUnion South\n"
+        + "reachable\tUnion South\t0\n"
+        + "walk\tUnion South\tScience Hall\n";
+
+    StringWriter csv = new StringWriter();
+    assertEquals(8, new BatchApp(campus, false)
+        .run(new BufferedReader(new StringReader(queries)), csv, 3));
+    assertEquals("line,query,start,target,seconds,locations,error\n"
+        + "1,path,Union South,\"Atmospheric, Oceanic and Space Sciences\",182.20000000000002,"
+        + "\"Union South | Atmospheric, Oceanic and Space Sciences\",\n"
+        + "3,reachable,,,,,the location Nowhere could not be found\n"
+        + "5,reachable,,,,,the time -5 is negative or not finite\n"
+        + "6,reachable,,,,,the time NaN is negative or not finite\n"
+        + "7,reachable,,,,,the time Infinity is negative or not finite\n"
+        + "8,path,,,,,a query needs 3 tab separated fields\n"
+        + "9,reachable,Union South,0,0.0,Union South,\n"
+        + "10,walk,,,,,unknown query walk\n", csv.toString());
+
+    StringWriter json = new StringWriter();
+    assertEquals(8, new BatchApp(campus, true)
+        .run(new BufferedReader(new StringReader(queries)), json, 3));
+    String[] lines = json.toString().split("\n");
+    int[] numbers = {1, 3, 5, 6, 7, 8, 9, 10};
+    assertEquals(numbers.length, lines.length);
+    for (int i = 0; i < numbers.length; i++) {
+      assertTrue(lines[i].startsWith("{\"line\":" + numbers[i] + ",\"query\":"));
+    }
+    assertTrue(lines[0].endsWith(
+        "\"path\":[\"Union South\",\"Atmospheric, Oceanic and Space Sciences\"]}"));
+    assertEquals("{\"line\":3,\"query\":\"reachable\","
+        + "\"error\":\"the location Nowhere could not be found\"}", lines[1]);
+    assertEquals("{\"line\":9,\"query\":\"reachable\",\"start\":\"Union South\","
+        + "\"seconds\":0.0,\"locations\":[\"Union South\"]}", lines[6]);
+  }
+
+  /**
+   * Tests that the RoutingServer answers path requests with JSON, and bad requests with an error.
+   * @throws Exception if the server could not be started or a request failed
+   */
+  @Test
+  public void testRoutingServer() throws Exception {
+    backend.loadGraphData("campus.dot");
+    RoutingServer server = new RoutingServer(backend, 0);
+    server.start();
+    try {
+      HttpClient client = HttpClient.newHttpClient();
+      String base = "http://localhost:" + server.getPort();
+      HttpResponse<String> response = client.send(HttpRequest.newBuilder(URI.create(base
+          + "/travel-times?start=Union+South&end=Atmospheric%2C+Oceanic+and+Space+Sciences"))
+          .build(), HttpResponse.BodyHandlers.ofString());
+      assertEquals(200, response.statusCode());
+      assertTrue(response.body().startsWith("{\"start\":\"Union South\","));
+      assertTrue(response.body().contains("\"totalSeconds\":303.2"));
+      response = client.send(HttpRequest.newBuilder(URI.create(base + "/path?start=Union+South"))
+          .build(), HttpResponse.BodyHandlers.ofString());
+      assertEquals(400, response.statusCode());
+      assertEquals("{\"error\":\"the parameter end is missing\"}", response.body());
+      for (String seconds : List.of("-1", "NaN", "Infinity")) {
+        response = client.send(HttpRequest.newBuilder(URI.create(base
+            + "/reachable?start=Union+South&seconds=" + seconds)).build(),
+            HttpResponse.BodyHandlers.ofString());
+        assertEquals(400, response.statusCode());
+      }
+      response = client.send(HttpRequest.newBuilder(URI.create(base
+          + "/reachable?start=Nowhere&seconds=100")).build(), HttpResponse.BodyHandlers.ofString());
+      assertEquals(404, response.statusCode());
+      assertEquals("{\"error\":\"the location Nowhere could not be found\"}", response.body());
+      response = client.send(HttpRequest.newBuilder(URI.create(base
+          + "/reachable?start=Union+South&seconds=0")).build(),
+          HttpResponse.BodyHandlers.ofString());
+      assertEquals(200, response.statusCode());
+      assertTrue(backend.containsLocation("Union South"));
+      assertFalse(backend.containsLocation("Nowhere"));
+    } finally {
+      server.stop(0);
+    }
+  }
+
+  /**
+   * Tests that reloading campus.dot after an edge was added, an edge was reweighted, an edge was
+   * removed and a location was removed applies exactly those changes, and that reloading the
+   * original file afterwards undoes them.
+   * @throws IOException if there was a problem reading in the specified file
+   */
+  @Test
+  public void testReloadGraphData() throws IOException {
+    Backend campus = new Backend(new ConcurrentGraph<>());
+    campus.loadGraphData("campus.dot");
+    assertEquals(105.8,
+        campus.findShortestPathResult("Memorial Union", "Science Hall").getTotalCost(), 0.001);
+
+    List<String> lines = new ArrayList<>();
+    for (String line : Files.readAllLines(new File("campus.dot").toPath())) {
+      if (line.contains("\"Radio Hall\"")
+          || line.contains("\"Memorial Union\" -> \"Brat Stand\"")) {
+        continue;
+      }
+      lines.add(line.replace("\"Science Hall\" [seconds=105.8]",
+          "\"Science Hall\" [seconds=1.0]"));
+    }
+    lines.add(lines.size() - 1,
+        "\t\"Memorial Union\" -> \"Mosse Humanities Building\" [seconds=1.5];");
+    File changed = File.createTempFile("campus", ".dot");
+    changed.deleteOnExit();
+    Files.write(changed.toPath(), lines);
+
+    GraphDiff diff = campus.reloadGraphData(changed.getPath());
+    assertEquals(0, diff.getAddedLocations());
+    assertEquals(1, diff.getRemovedLocations());
+    assertEquals(1, diff.getInsertedEdges());
+    // the edge from Memorial Union to Brat Stand, and the 14 edges of Radio Hall
+    assertEquals(15, diff.getRemovedEdges());
+    assertEquals(1, diff.getReweightedEdges());
+    assertFalse(campus.getListOfAllLocations().contains("Radio Hall"));
+    assertEquals(1.0,
+        campus.findShortestPathResult("Memorial Union", "Science Hall").getTotalCost(), 0.001);
+    assertEquals(List.of("Memorial Union", "Mosse Humanities Building"),
+        campus.findShortestPath("Memorial Union", "Mosse Humanities Building"));
+    assertNotEquals(List.of("Memorial Union", "Brat Stand"),
+        campus.findShortestPath("Memorial Union", "Brat Stand"));
+
+    diff = campus.reloadGraphData("campus.dot");
+    assertEquals(1, diff.getAddedLocations());
+    assertEquals(0, diff.getRemovedLocations());
+    assertEquals(15, diff.getInsertedEdges());
+    assertEquals(1, diff.getRemovedEdges());
+    assertEquals(1, diff.getReweightedEdges());
+    assertEquals(105.8,
+        campus.findShortestPathResult("Memorial Union", "Science Hall").getTotalCost(), 0.001);
+    assertTrue(campus.getListOfAllLocations().contains("Radio Hall"));
+
+    // a dot file loaded before a mapped graph file leaves nothing behind for a later reload
+    File chain = File.createTempFile("chain", ".dot");
+    chain.deleteOnExit();
+    Files.write(chain.toPath(), List.of("digraph chain {",
+        "\t\"A\" -> \"B\" [seconds=1.0];", "\t\"B\" -> \"C\" [seconds=1.0];", "}"));
+    File shortcut = File.createTempFile("shortcut", ".dot");
+    shortcut.deleteOnExit();
+    Files.write(shortcut.toPath(), List.of("digraph shortcut {",
+        "\t\"A\" -> \"C\" [seconds=5.0];", "}"));
+    File mapped = File.createTempFile("shortcut", ".bin");
+    mapped.deleteOnExit();
+    Backend writer = new Backend(new ConcurrentGraph<>());
+    writer.loadGraphData(shortcut.getPath());
+    writer.saveGraphFile(mapped.getPath());
+    Backend reloaded = new Backend(new ConcurrentGraph<>());
+    reloaded.loadGraphData(chain.getPath());
+    reloaded.loadGraphData(mapped.getPath());
+    diff = reloaded.reloadGraphData(shortcut.getPath());
+    assertEquals(2, diff.getAddedLocations());
+    assertEquals(1, diff.getInsertedEdges());
+    assertEquals(0, diff.getRemovedLocations());
+    assertEquals(0, diff.getRemovedEdges());
+    assertEquals(List.of("A", "C"), reloaded.getListOfAllLocations());
+    assertEquals(List.of("A", "C"), reloaded.findShortestPath("A", "C"));
+
+    // the edges of a graph that cannot be copied cannot be compared with the file
+    assertThrows(IllegalStateException.class,
+        () -> new Backend(new GraphPlaceholder()).reloadGraphData("campus.dot"));
+  }
+
+  /**
+   * Tests that queries running while another thread keeps reloading the graph data each see the
+   * locations of one complete load, and never fail because the locations change under them.
+   * @throws Exception if a query or reload failed
+   */
+  @Test
+  public void testQueriesDuringReload() throws Exception {
+    Backend campus = new Backend(new ConcurrentGraph<>());
+    campus.loadGraphData("campus.dot");
+    int all = campus.getListOfAllLocations().size();
+    File smaller = File.createTempFile("campus", ".dot");
+    smaller.deleteOnExit();
+    List<String> lines = new ArrayList<>();
+    for (String line : Files.readAllLines(new File("campus.dot").toPath())) {
+      if (!line.contains("\"Radio Hall\"")) {
+        lines.add(line);
+      }
+    }
+    Files.write(smaller.toPath(), lines);
+
+    CompletableFuture<Void> reloads = CompletableFuture.runAsync(() -> {
+      try {
+        for (int i = 0; i < 20; i++) {
+          campus.reloadGraphData(i % 2 == 0 ? smaller.getPath() : "campus.dot");
+        }
+      } catch (IOException e) {
+        throw new RuntimeException(e);
+      }
+    });
+    while (!reloads.isDone()) {
+      int count = 0;
+      for (String location : campus.getListOfAllLocations()) {
+        count += location.isEmpty() ? 0 : 1;
+      }
+      assertTrue(count == all || count == all - 1);
+      assertFalse(campus.findShortestPath("Memorial Union", "Science Hall").isEmpty());
+      assertNotNull(campus.suggestLocations("Memorial", 3));
+    }
+    reloads.get();
+    assertEquals(all, campus.getListOfAllLocations().size());
+  }
+
+  /**
+   * Tests that a GraphRegistry keeps its graphs apart, shares the location names they have in
+   * common, and unloads a graph without affecting the others.
+   * @throws IOException if there was a problem reading in the specified file
+   */
+  @Test
+  public void testGraphRegistry() throws IOException {
+    GraphRegistry registry = new GraphRegistry();
+    registry.load("campus", "campus.dot");
+    registry.load("copy", "campus.dot");
+    assertEquals(List.of("campus", "copy"), registry.getGraphNames());
+    List<String> campus = registry.get("campus").getListOfAllLocations();
+    List<String> copy = registry.get("copy").getListOfAllLocations();
+    assertEquals(campus, copy);
+    assertSame(campus.get(0), copy.get(0));
+    assertEquals(campus.size(), registry.getNamePool().size());
+
+    assertTrue(registry.unload("copy"));
+    assertFalse(registry.unload("copy"));
+    assertThrows(NoSuchElementException.class, () -> registry.get("copy"));
+    assertEquals(182.2, registry.get("campus").findShortestPathResult("Union South",
+        "Atmospheric, Oceanic and Space Sciences").getTotalCost(), 0.001);
+  }
+
   /**
    * Tests loadGraphData with a wrong input.
    * @throws IOException if there was a problem reading in the specified file
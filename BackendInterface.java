@@ -1,5 +1,7 @@
 import java.io.IOException;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
 
 public interface BackendInterface {
 
@@ -22,6 +24,21 @@ public interface BackendInterface {
    */
   public List<String> getListOfAllLocations();
 
+  /**
+   * Returns whether the backend's graph has a location with the provided name.
+   * @param location the name of the location to look for
+   * @return true if the location is found, false otherwise
+   */
+  public boolean containsLocation(String location);
+
+  /**
+   * Suggests locations for partly typed or misspelled text, fast enough to call on every keypress.
+   * @param text the text typed so far
+   * @param limit the largest number of locations to suggest
+   * @return up to limit location names that start with or are similar to text, best first
+   */
+  public List<String> suggestLocations(String text, int limit);
+
   /**
    * Returns the sequence of locations along the shortest path from startLocation to endLocation, or
    * en empty list if no such path exists.
@@ -42,11 +59,73 @@ public interface BackendInterface {
    */
   public List<Double> getTravelTimesOnPath(String startLocation, String endLocation);
 
+  /**
+   * Returns the locations along the shortest path from startLocation to endLocation together with
+   * the walking time in seconds of each leg and the total walking time up to each location, all
+   * found by a single search.
+   * @param startLocation the start location of the path
+   * @param endLocation the end location of the path
+   * @return the PathResult of the shortest path from startLocation to endLocation, which is empty
+   *         if no such path exists
+   */
+  public PathResult<String> findShortestPathResult(String startLocation, String endLocation);
+
+  /**
+   * Returns the same result as findShortestPathResult(startLocation, endLocation), but stops
+   * searching once the provided token is cancelled or its deadline passes.
+   * @param startLocation the start location of the path
+   * @param endLocation the end location of the path
+   * @param token the token that stops the search
+   * @return the PathResult of the shortest path from startLocation to endLocation, which is empty
+   *         if no such path exists
+   * @throws CancellationException if the token stopped the search
+   */
+  public PathResult<String> findShortestPathResult(String startLocation, String endLocation,
+      CancellationToken token);
+
+  /**
+   * Finds the shortest paths between many pairs of locations at once, searching only once from
+   * each distinct start location.
+   * @param pairs the start location (key) and end location (value) of each path to find
+   * @return the PathResult of the shortest path between each pair, in the order of pairs, which is
+   *         empty for pairs without a path
+   */
+  public List<PathResult<String>> findShortestPaths(List<Map.Entry<String, String>> pairs);
+
+  /**
+   * Returns the same results as findShortestPaths(pairs), but stops searching once the provided
+   * token is cancelled or its deadline passes.
+   * @param pairs the start location (key) and end location (value) of each path to find
+   * @param token the token that stops the searches
+   * @return the PathResult of the shortest path between each pair, in the order of pairs, which is
+   *         empty for pairs without a path
+   * @throws CancellationException if the token stopped the searches
+   */
+  public List<PathResult<String>> findShortestPaths(List<Map.Entry<String, String>> pairs,
+      CancellationToken token);
+
 
   /**
    * Returns all locations that are reachable from startLocation in at most timesInSec walking time.
-   * @param startLocation the maximum walking time for a destination to be included in the list
+   * @param startLocation the start location
+   * @param timesInSec the maximum walking time for a destination to be included in the list, or
+   *     Double.POSITIVE_INFINITY for every location that can be reached
+   * @return the locations within timesInSec of startLocation
+   * @throws IllegalArgumentException if timesInSec is negative or NaN
    */
   public List<String> getReachableLocations(String startLocation, double timesInSec);
 
+  /**
+   * Returns the same locations as getReachableLocations(startLocation, timesInSec), but stops
+   * searching once the provided token is cancelled or its deadline passes.
+   * @param startLocation the start location
+   * @param timesInSec the maximum walking time for a destination to be included in the list
+   * @param token the token that stops the search
+   * @return the locations within timesInSec of startLocation
+   * @throws IllegalArgumentException if timesInSec is negative or NaN
+   * @throws CancellationException if the token stopped the search
+   */
+  public List<String> getReachableLocations(String startLocation, double timesInSec,
+      CancellationToken token);
+
 }
@@ -1,6 +1,8 @@
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 
 public class BackendPlaceholder implements BackendInterface {
 
@@ -12,6 +14,14 @@ public class BackendPlaceholder implements BackendInterface {
     return Arrays.asList("Union South", "Computer Sciences and Statistics", "Atmospheric, Oceanic and Space Sciences");
   }
 
+  public boolean containsLocation(String location) {
+    return getListOfAllLocations().contains(location);
+  }
+
+  public List<String> suggestLocations(String text, int limit) {
+    return new LocationIndex(getListOfAllLocations()).suggest(text, limit);
+  }
+
   public List<String> findShortestPath(String startLocation, String endLocation) {
     return Arrays.asList("Union South", "Computer Sciences and Statistics", "Atmospheric, Oceanic and Space Sciences");
   }
@@ -20,8 +30,39 @@ public class BackendPlaceholder implements BackendInterface {
     return Arrays.asList(176.0, 80.0);
   }
 
+  public PathResult<String> findShortestPathResult(String startLocation, String endLocation) {
+    return new PathResult<>(findShortestPath(startLocation, endLocation),
+        getTravelTimesOnPath(startLocation, endLocation));
+  }
+
+  public PathResult<String> findShortestPathResult(String startLocation, String endLocation,
+      CancellationToken token) {
+    token.throwIfCancelled();
+    return findShortestPathResult(startLocation, endLocation);
+  }
+
+  public List<PathResult<String>> findShortestPaths(List<Map.Entry<String, String>> pairs) {
+    List<PathResult<String>> results = new ArrayList<>();
+    for (Map.Entry<String, String> pair : pairs) {
+      results.add(findShortestPathResult(pair.getKey(), pair.getValue()));
+    }
+    return results;
+  }
+
+  public List<PathResult<String>> findShortestPaths(List<Map.Entry<String, String>> pairs,
+      CancellationToken token) {
+    token.throwIfCancelled();
+    return findShortestPaths(pairs);
+  }
+
   public List<String> getReachableLocations(String location, double timesInSec) {
     return Arrays.asList("Atmospheric, Oceanic and Space Sciences", "Memorial Union");
   }
 
+  public List<String> getReachableLocations(String location, double timesInSec,
+      CancellationToken token) {
+    token.throwIfCancelled();
+    return getReachableLocations(location, timesInSec);
+  }
+
 }
@@ -1,5 +1,7 @@
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
-import java.util.LinkedList;
+import java.util.Map;
 import java.util.NoSuchElementException;
 
 /**
@@ -8,11 +10,16 @@ import java.util.NoSuchElementException;
  */
 public class BaseGraph<NodeType, EdgeType extends Number> {
 
-    // Each node contains unique data along with two lists of directed edges
+    // Each node contains unique data along with two lists of directed edges,
+    // and an id that is its current position within nodeList. Its leaving
+    // edges are also indexed by their successor node, so the edge between two
+    // nodes is found without scanning edgesLeaving.
     protected class Node {
         public NodeType data;
-        public List<Edge> edgesLeaving = new LinkedList<>();
-        public List<Edge> edgesEntering = new LinkedList<>();
+        public int id;
+        public List<Edge> edgesLeaving = new ArrayList<>();
+        public List<Edge> edgesEntering = new ArrayList<>();
+        public Map<Node, Edge> edgesBySuccessor = new HashMap<>();
 
         public Node(NodeType data) {
             this.data = data;
@@ -21,12 +28,19 @@ public class BaseGraph<NodeType, EdgeType extends Number> {
 
     // Nodes can be retrieved from this map by their unique data
     protected MapADT<NodeType, Node> nodes = null;
+    // Nodes can also be retrieved by id, which stay dense from 0 to nodeCount-1
+    protected List<Node> nodeList = new ArrayList<>();
 
-    // Each edge contains data/weight, and two nodes that it connects
+    // Each edge contains data/weight, and two nodes that it connects. It also
+    // keeps its position within the predecessor's edgesLeaving and the
+    // successor's edgesEntering, so it can be removed from either list in
+    // constant time by moving the last edge of that list into its place.
     protected class Edge {
         public EdgeType data; // the weight or cost of this edge
         public Node predecessor;
         public Node successor;
+        public int leavingIndex;
+        public int enteringIndex;
 
         public Edge(EdgeType data, Node pred, Node succ) {
             this.data = data;
@@ -36,7 +50,9 @@ public class BaseGraph<NodeType, EdgeType extends Number> {
     }
 
     protected int edgeCount = 0;
-    // Edges can be retrieved through the edge lists in either connected node
+
+    // incremented by every change to the graph's nodes or edges
+    protected long version = 0;
 
     /**
      * Constructor for BaseGraph that provides the map the graph uses.
@@ -59,10 +75,21 @@ public class BaseGraph<NodeType, EdgeType extends Number> {
     public boolean insertNode(NodeType data) {
         if (nodes.containsKey(data))
             return false; // throws NPE when data's null
-        nodes.put(data, new Node(data));
+        addNode(data);
+        version++;
         return true;
     }
 
+    // adds a node for data, which is not in the graph yet, without changing
+    // the graph's version
+    private Node addNode(NodeType data) {
+        Node newNode = new Node(data);
+        newNode.id = nodeList.size();
+        nodes.put(data, newNode);
+        nodeList.add(newNode);
+        return newNode;
+    }
+
     /**
      * Remove a node from the graph.
      * And also remove all edges adjacent to that node.
@@ -77,12 +104,27 @@ public class BaseGraph<NodeType, EdgeType extends Number> {
         if (!nodes.containsKey(data))
             return false; // throws NPE when data==null
         Node oldNode = nodes.remove(data);
+        // keep ids dense by moving the last node into the removed node's slot
+        Node lastNode = nodeList.remove(nodeList.size() - 1);
+        if (lastNode != oldNode) {
+            lastNode.id = oldNode.id;
+            nodeList.set(oldNode.id, lastNode);
+        }
         // remove all edges entering neighboring nodes from this one
-        for (Edge edge : oldNode.edgesLeaving)
-            edge.successor.edgesEntering.remove(edge);
-        // remove all edges leaving neighboring nodes toward this one
-        for (Edge edge : oldNode.edgesEntering)
-            edge.predecessor.edgesLeaving.remove(edge);
+        for (Edge edge : oldNode.edgesLeaving) {
+            unlinkEntering(edge);
+            this.edgeCount--;
+        }
+        // remove all edges leaving neighboring nodes toward this one, except
+        // for a self loop, which was already removed and counted above
+        for (Edge edge : oldNode.edgesEntering) {
+            if (edge.predecessor == oldNode)
+                continue;
+            unlinkLeaving(edge);
+            edge.predecessor.edgesBySuccessor.remove(oldNode);
+            this.edgeCount--;
+        }
+        version++;
         return true;
     }
 
@@ -119,25 +161,68 @@ public class BaseGraph<NodeType, EdgeType extends Number> {
      */
     public boolean insertEdge(NodeType pred, NodeType succ, EdgeType weight) {
         // find nodes associated with node data, and return false when not found
-        Node predNode = nodes.get(pred);
-        Node succNode = nodes.get(succ);
+        Node predNode = nodes.getOrDefault(pred, null);
+        Node succNode = nodes.getOrDefault(succ, null);
         if (predNode == null || succNode == null)
             return false;
-        try {
+        Edge existingEdge = predNode.edgesBySuccessor.get(succNode);
+        if (existingEdge != null) {
             // when an edge alread exists within the graph, update its weight
-            Edge existingEdge = getEdgeHelper(pred, succ);
             existingEdge.data = weight;
-        } catch (NoSuchElementException e) {
+        } else {
             // otherwise create a new edges
-            Edge newEdge = new Edge(weight, predNode, succNode);
-            this.edgeCount++;
-            // and insert it into each of its adjacent nodes' respective lists
-            predNode.edgesLeaving.add(newEdge);
-            succNode.edgesEntering.add(newEdge);
+            addEdge(predNode, succNode, weight);
         }
+        version++;
         return true;
     }
 
+    // creates a new edge and inserts it into each of its adjacent nodes'
+    // respective lists, and into the predecessor's index
+    private void addEdge(Node predNode, Node succNode, EdgeType weight) {
+        Edge newEdge = new Edge(weight, predNode, succNode);
+        this.edgeCount++;
+        newEdge.leavingIndex = predNode.edgesLeaving.size();
+        newEdge.enteringIndex = succNode.edgesEntering.size();
+        predNode.edgesLeaving.add(newEdge);
+        succNode.edgesEntering.add(newEdge);
+        predNode.edgesBySuccessor.put(succNode, newEdge);
+    }
+
+    /**
+     * Insert a batch of directed edges, along with any of their nodes that
+     * are not in the graph yet. This has the same effect as inserting both
+     * nodes and then the edge for each index in order, so a later weight for
+     * the same pred and succ replaces an earlier one, but the graph's version
+     * only changes once for the whole batch, including the nodes it adds.
+     *
+     * @param preds   the data items in the predecessor node of each edge
+     * @param succs   the data items in the successor node of each edge
+     * @param weights the non-negative weight of each edge
+     * @throws IllegalArgumentException if the lists have different sizes
+     * @throws NullPointerException if any node data is null
+     */
+    public void insertEdges(List<NodeType> preds, List<NodeType> succs, List<EdgeType> weights) {
+        if (preds.size() != succs.size() || preds.size() != weights.size())
+            throw new IllegalArgumentException("every edge needs a pred, succ and weight");
+        for (int i = 0; i < preds.size(); i++) {
+            // new nodes are added without changing the version, which only
+            // changes once below
+            Node predNode = nodes.getOrDefault(preds.get(i), null);
+            if (predNode == null)
+                predNode = addNode(preds.get(i));
+            Node succNode = nodes.getOrDefault(succs.get(i), null);
+            if (succNode == null)
+                succNode = addNode(succs.get(i));
+            Edge existingEdge = predNode.edgesBySuccessor.get(succNode);
+            if (existingEdge != null)
+                existingEdge.data = weights.get(i);
+            else
+                addEdge(predNode, succNode, weights.get(i));
+        }
+        version++;
+    }
+
     /**
      * Remove an edge from the graph.
      * 
@@ -147,18 +232,39 @@ public class BaseGraph<NodeType, EdgeType extends Number> {
      *         false if such an edge is not found in the graph
      */
     public boolean removeEdge(NodeType pred, NodeType succ) {
-        try {
-            // when an edge exists
-            Edge oldEdge = getEdgeHelper(pred, succ);
-            // remove it from the edge lists of each adjacent node
-            oldEdge.predecessor.edgesLeaving.remove(oldEdge);
-            oldEdge.successor.edgesEntering.remove(oldEdge);
-            // and decrement the edge count before removing
-            this.edgeCount--;
-            return true;
-        } catch (NoSuchElementException e) {
-            // when no such edge exists, return false instead
+        Edge oldEdge = findEdge(pred, succ);
+        // when no such edge exists, return false instead
+        if (oldEdge == null)
             return false;
+        // remove it from the edge lists and index of each adjacent node
+        unlinkLeaving(oldEdge);
+        unlinkEntering(oldEdge);
+        oldEdge.predecessor.edgesBySuccessor.remove(oldEdge.successor);
+        // and decrement the edge count before removing
+        this.edgeCount--;
+        version++;
+        return true;
+    }
+
+    // removes an edge from its predecessor's edgesLeaving by moving the last
+    // edge of that list into its slot
+    private void unlinkLeaving(Edge edge) {
+        List<Edge> edges = edge.predecessor.edgesLeaving;
+        Edge last = edges.remove(edges.size() - 1);
+        if (last != edge) {
+            last.leavingIndex = edge.leavingIndex;
+            edges.set(edge.leavingIndex, last);
+        }
+    }
+
+    // removes an edge from its successor's edgesEntering by moving the last
+    // edge of that list into its slot
+    private void unlinkEntering(Edge edge) {
+        List<Edge> edges = edge.successor.edgesEntering;
+        Edge last = edges.remove(edges.size() - 1);
+        if (last != edge) {
+            last.enteringIndex = edge.enteringIndex;
+            edges.set(edge.enteringIndex, last);
         }
     }
 
@@ -170,12 +276,7 @@ public class BaseGraph<NodeType, EdgeType extends Number> {
      * @return true if the edge is found in the graph, or false other
      */
     public boolean containsEdge(NodeType pred, NodeType succ) {
-        try {
-            getEdgeHelper(pred, succ);
-            return true;
-        } catch (NoSuchElementException e) {
-            return false;
-        }
+        return findEdge(pred, succ) != null;
     }
 
     /**
@@ -192,15 +293,29 @@ public class BaseGraph<NodeType, EdgeType extends Number> {
     }
 
     protected Edge getEdgeHelper(NodeType pred, NodeType succ) {
-        Node predNode = nodes.get(pred);
-        // search for edge through the predecessor's list of leaving edges
-        for (Edge edge : predNode.edgesLeaving)
-            // compare succ to the data in each leaving edge's successor
-            if (edge.successor.data.equals(succ))
-                return edge;
+        Edge edge = findEdge(pred, succ);
         // when no such edge can be found, throw NSE
-        throw new NoSuchElementException("No edge from " + pred.toString() + " to " +
-                succ.toString());
+        if (edge == null)
+            throw new NoSuchElementException("No edge from " + pred.toString() + " to " +
+                    succ.toString());
+        return edge;
+    }
+
+    /**
+     * Looks up the edge between two nodes through the predecessor's index of
+     * leaving edges, in constant expected time.
+     *
+     * @param pred the data item contained in the source node for the edge
+     * @param succ the data item contained in the target node for the edge
+     * @return the edge between those nodes, or null if either node or the
+     *         edge between them are not found within this graph
+     */
+    protected Edge findEdge(NodeType pred, NodeType succ) {
+        Node predNode = nodes.getOrDefault(pred, null);
+        Node succNode = nodes.getOrDefault(succ, null);
+        if (predNode == null || succNode == null)
+            return null;
+        return predNode.edgesBySuccessor.get(succNode);
     }
 
     /**
@@ -212,4 +327,49 @@ public class BaseGraph<NodeType, EdgeType extends Number> {
         return this.edgeCount;
     }
 
+    /**
+     * Return the version of the graph. The version changes whenever a node or
+     * edge is inserted, removed or updated, so results computed from the
+     * graph can be tagged with it and discarded once they are out of date.
+     *
+     * @return the current version of the graph
+     */
+    public long getVersion() {
+        return this.version;
+    }
+
+    /**
+     * Creates a read-only compressed sparse row copy of this graph. Node ids
+     * in the returned snapshot match the ids of this graph's nodes at the
+     * time of the call. Later changes to this graph are not reflected in the
+     * snapshot.
+     *
+     * @return a CSRGraph containing the same nodes and edges as this graph
+     */
+    public CSRGraph<NodeType> freeze() {
+        int nodeCount = nodeList.size();
+        int totalEdges = 0;
+        for (Node node : nodeList)
+            totalEdges += node.edgesLeaving.size();
+
+        @SuppressWarnings("unchecked")
+        NodeType[] names = (NodeType[]) new Object[nodeCount];
+        int[] offsets = new int[nodeCount + 1];
+        int[] targets = new int[totalEdges];
+        double[] weights = new double[totalEdges];
+        // copy each node's leaving edges into consecutive slots of targets and weights
+        int next = 0;
+        for (Node node : nodeList) {
+            names[node.id] = node.data;
+            offsets[node.id] = next;
+            for (Edge edge : node.edgesLeaving) {
+                targets[next] = edge.successor.id;
+                weights[next] = edge.data.doubleValue();
+                next++;
+            }
+        }
+        offsets[nodeCount] = next;
+        return new CSRGraph<>(names, offsets, targets, weights);
+    }
+
 }
@@ -0,0 +1,278 @@
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * BatchApp answers queries from a file or standard input without JavaFX, writing one line of CSV
+ * or JSON per query to standard output. The graph is loaded once, and then every input line is
+ * one query of tab separated fields:
+ *
+ * <pre>
+ *   path      START  END        the shortest path from START to END and its walking time
+ *   reachable START  SECONDS    the locations within SECONDS of START
+ * </pre>
+ *
+ * Blank lines and lines starting with # are skipped. Queries are answered on several threads,
+ * but only a fixed number of them are read ahead of the answer being written, so any number of
+ * queries runs in the same memory, and the answers come out in the order of the queries.
+ */
+public class BatchApp {
+
+  // the largest number of queries read ahead of the oldest unwritten answer, per thread
+  protected static final int QUEUED_PER_THREAD = 256;
+  protected static final String USAGE = "usage: java BatchApp [--json] [--threads N] "
+      + "[--timeout MS] [--hierarchy] GRAPH_FILE [QUERY_FILE]";
+
+  protected BackendInterface backend;
+  protected boolean json;
+  // the time each query may search for, or 0 for no limit
+  protected long queryMillis = 0;
+
+  /**
+   * Creates a batch that answers queries with the provided backend.
+   *
+   * @param backend the backend with the graph data loaded
+   * @param json    true to write JSON lines, or false to write CSV
+   */
+  public BatchApp(BackendInterface backend, boolean json) {
+    this.backend = backend;
+    this.json = json;
+  }
+
+  /**
+   * Sets the time each query may search for. Queries that take longer are stopped, and answered
+   * with an error.
+   *
+   * @param millis the deadline of each query in milliseconds, or 0 for no limit
+   */
+  public void setQueryTimeout(long millis) {
+    queryMillis = millis;
+  }
+
+  /**
+   * Answers every query read from input, and writes the answers to output in the same order.
+   *
+   * @param input   the queries, one per line
+   * @param output  where to write the answers
+   * @param threads the number of threads to answer queries on
+   * @return the number of queries answered
+   * @throws IOException if input could not be read or output could not be written
+   */
+  public long run(BufferedReader input, Writer output, int threads) throws IOException {
+    ExecutorService pool = Executors.newFixedThreadPool(threads);
+    Queue<Future<String>> answers = new ArrayDeque<>();
+    long queries = 0;
+    try {
+      if (!json) {
+        output.write("line,query,start,target,seconds,locations,error\n");
+      }
+      String line;
+      long number = 0;
+      while ((line = input.readLine()) != null) {
+        number++;
+        if (line.isBlank() || line.startsWith("#")) {
+          continue;
+        }
+        if (answers.size() == threads * QUEUED_PER_THREAD) {
+          output.write(get(answers.remove()));
+        }
+        String query = line;
+        long queryNumber = number;
+        answers.add(pool.submit(() -> answer(queryNumber, query)));
+        queries++;
+      }
+      while (!answers.isEmpty()) {
+        output.write(get(answers.remove()));
+      }
+      output.flush();
+      return queries;
+    } finally {
+      pool.shutdownNow();
+    }
+  }
+
+  // waits for an answer, which answer never fails to produce
+  private static String get(Future<String> answer) throws IOException {
+    try {
+      return answer.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("interrupted while answering queries", e);
+    } catch (ExecutionException e) {
+      throw new IOException("could not answer a query", e.getCause());
+    }
+  }
+
+  /**
+   * Answers one query line.
+   *
+   * @param number the line number of the query in the input
+   * @param line   the query
+   * @return the output line of the answer, ending with a newline
+   */
+  protected String answer(long number, String line) {
+    String[] fields = line.split("\t");
+    String kind = fields[0].trim();
+    CancellationToken token = queryMillis > 0 ? CancellationToken.withTimeout(queryMillis)
+        : CancellationToken.NONE;
+    try {
+      try {
+        if (fields.length != 3) {
+          return error(number, kind, "a query needs 3 tab separated fields");
+        }
+        String start = fields[1];
+        if (kind.equals("path")) {
+          PathResult<String> result = backend.findShortestPathResult(start, fields[2], token);
+          if (result.isEmpty()) {
+            return error(number, kind, "there is no path from " + start + " to " + fields[2]);
+          }
+          return format(number, kind, start, fields[2], result.getTotalCost(), result.getNodes());
+        }
+        if (kind.equals("reachable")) {
+          double seconds;
+          try {
+            seconds = Double.parseDouble(fields[2]);
+          } catch (NumberFormatException e) {
+            return error(number, kind, "the time " + fields[2] + " is not a number");
+          }
+          if (!(seconds >= 0) || Double.isInfinite(seconds)) {
+            return error(number, kind, "the time " + fields[2] + " is negative or not finite");
+          }
+          if (!backend.containsLocation(start)) {
+            return error(number, kind, "the location " + start + " could not be found");
+          }
+          List<String> locations = backend.getReachableLocations(start, seconds, token);
+          return format(number, kind, start, fields[2], seconds, locations);
+        }
+        return error(number, kind, "unknown query " + kind);
+      } catch (CancellationException e) {
+        return error(number, kind, "the query took longer than " + queryMillis + " ms");
+      }
+    } catch (IOException e) {
+      // only appending to a StringBuilder, which cannot fail
+      throw new IllegalStateException(e);
+    }
+  }
+
+  // formats a query's answer as a CSV line or a JSON line
+  private String format(long number, String kind, String start, String target, double seconds,
+      List<String> locations) throws IOException {
+    StringBuilder out = new StringBuilder();
+    if (json) {
+      JsonWriter writer = new JsonWriter(out);
+      writer.beginObject();
+      writer.name("line").value(number);
+      writer.name("query").value(kind);
+      writer.name("start").value(start);
+      if (kind.equals("path")) {
+        writer.name("end").value(target);
+        writer.name("totalSeconds").value(seconds);
+        writer.name("path").beginArray();
+      } else {
+        writer.name("seconds").value(seconds);
+        writer.name("locations").beginArray();
+      }
+      for (String location : locations) {
+        writer.value(location);
+      }
+      writer.endArray().endObject();
+    } else {
+      out.append(number).append(',');
+      csv(out, kind).append(',');
+      csv(out, start).append(',');
+      csv(out, target).append(',');
+      out.append(seconds).append(',');
+      csv(out, String.join(" | ", locations)).append(',');
+    }
+    return out.append('\n').toString();
+  }
+
+  // formats a query that could not be answered
+  private String error(long number, String kind, String message) throws IOException {
+    StringBuilder out = new StringBuilder();
+    if (json) {
+      new JsonWriter(out).beginObject().name("line").value(number)
+          .name("query").value(kind).name("error").value(message).endObject();
+    } else {
+      out.append(number).append(',');
+      csv(out, kind).append(",,,,,");
+      csv(out, message);
+    }
+    return out.append('\n').toString();
+  }
+
+  // appends a CSV field, quoted if it contains a comma, a quote or a line break
+  private static StringBuilder csv(StringBuilder out, String field) {
+    if (field.indexOf(',') < 0 && field.indexOf('"') < 0 && field.indexOf('\n') < 0
+        && field.indexOf('\r') < 0) {
+      return out.append(field);
+    }
+    return out.append('"').append(field.replace("\"", "\"\"")).append('"');
+  }
+
+  /**
+   * Loads a graph file and answers the queries in a query file, or in standard input if no query
+   * file is provided. Pass --json to write JSON lines instead of CSV, --threads N to answer
+   * queries on N threads instead of one per processor, --timeout MS to stop queries that search
+   * for longer than MS milliseconds, and --hierarchy to answer them from a contraction hierarchy,
+   * which pays off for many queries on a large graph.
+   *
+   * @param args the options, the graph file and the optional query file
+   * @throws IOException if a file could not be read, or the output could not be written
+   */
+  public static void main(String[] args) throws IOException {
+    boolean json = false;
+    boolean hierarchy = false;
+    int threads = Runtime.getRuntime().availableProcessors();
+    long timeout = 0;
+    int i = 0;
+    for (; i < args.length && args[i].startsWith("--"); i++) {
+      if (args[i].equals("--json")) {
+        json = true;
+      } else if (args[i].equals("--hierarchy")) {
+        hierarchy = true;
+      } else if (args[i].equals("--threads") && i + 1 < args.length) {
+        threads = Integer.parseInt(args[++i]);
+      } else if (args[i].equals("--timeout") && i + 1 < args.length) {
+        timeout = Long.parseLong(args[++i]);
+      } else {
+        System.err.println(USAGE);
+        System.exit(2);
+      }
+    }
+    if (i == args.length || args.length > i + 2 || threads < 1) {
+      System.err.println(USAGE);
+      System.exit(2);
+    }
+
+    Backend backend = new Backend(new ConcurrentGraph<String>());
+    backend.loadGraphData(args[i]);
+    if (hierarchy) {
+      backend.useContractionHierarchy();
+    }
+    InputStream queries = i + 1 < args.length ? new FileInputStream(args[i + 1]) : System.in;
+    try (BufferedReader input = new BufferedReader(
+        new InputStreamReader(queries, StandardCharsets.UTF_8));
+        Writer output = new BufferedWriter(
+            new OutputStreamWriter(System.out, StandardCharsets.UTF_8), 1 << 16)) {
+      BatchApp batch = new BatchApp(backend, json);
+      batch.setQueryTimeout(timeout);
+      batch.run(input, output, threads);
+    }
+  }
+
+}
@@ -0,0 +1,499 @@
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CancellationException;
+
+/**
+ * This CSRGraph class is a read-only snapshot of a directed and weighted graph
+ * stored in compressed sparse row form. Nodes are identified by dense int ids
+ * from 0 to getNodeCount()-1. The edges leaving node v are stored in slots
+ * offsets[v] through offsets[v+1]-1 of the parallel targets and weights
+ * buffers, so a search reads each node's edges from consecutive memory instead
+ * of following references between Node and Edge objects.
+ *
+ * CSRGraphs are created from a BaseGraph through its freeze() method. The
+ * buffers are backed by arrays there, while MappedCSRGraph backs them with a
+ * memory-mapped graph file.
+ */
+public class CSRGraph<NodeType> implements ShortestPathADT<NodeType> {
+
+    // the data stored in each node, indexed by node id, or null when a
+    // subclass looks nodes up another way
+    protected NodeType[] names;
+    // node ids can be retrieved from this map by the node's unique data
+    protected MapADT<NodeType, Integer> ids;
+    // edges leaving node v are stored at offsets[v] until offsets[v+1]
+    protected IntBuffer offsets;
+    // the id of the successor node and the weight of each edge
+    protected IntBuffer targets;
+    protected DoubleBuffer weights;
+
+    /**
+     * While searching this graph, a Search stores the best known cost and the
+     * predecessor of every node, along with the order in which nodes were
+     * settled.
+     */
+    protected class Search {
+        public double[] cost;
+        public int[] predecessor;
+        public int[] predecessorEdge;
+        public int[] settled;
+        public int settledCount = 0;
+
+        public Search(int nodeCount) {
+            cost = new double[nodeCount];
+            Arrays.fill(cost, Double.POSITIVE_INFINITY);
+            predecessor = new int[nodeCount];
+            Arrays.fill(predecessor, -1);
+            predecessorEdge = new int[nodeCount];
+            settled = new int[nodeCount];
+        }
+    }
+
+    /**
+     * Creates a snapshot from arrays that are already in compressed sparse row
+     * form. The arrays are used directly and must not be changed afterwards.
+     *
+     * @param names   the data stored in each node, indexed by node id
+     * @param offsets the first edge slot of each node, followed by the total
+     *                number of edges
+     * @param targets the successor node id of each edge
+     * @param weights the non-negative weight of each edge
+     */
+    protected CSRGraph(NodeType[] names, int[] offsets, int[] targets, double[] weights) {
+        this(IntBuffer.wrap(offsets), IntBuffer.wrap(targets), DoubleBuffer.wrap(weights));
+        this.names = names;
+        this.ids = new OpenAddressingMap<>(names.length);
+        for (int i = 0; i < names.length; i++)
+            ids.put(names[i], i);
+    }
+
+    /**
+     * Creates a snapshot from buffers in compressed sparse row form, for
+     * subclasses that store node data themselves and override getData,
+     * getId and containsNode. The buffers are read with absolute gets from
+     * index 0 up to their limits.
+     *
+     * @param offsets the first edge slot of each node, followed by the total
+     *                number of edges
+     * @param targets the successor node id of each edge
+     * @param weights the non-negative weight of each edge
+     */
+    protected CSRGraph(IntBuffer offsets, IntBuffer targets, DoubleBuffer weights) {
+        this.offsets = offsets;
+        this.targets = targets;
+        this.weights = weights;
+    }
+
+    /**
+     * Return the number of nodes in the graph.
+     *
+     * @return the number of nodes in the graph
+     */
+    public int getNodeCount() {
+        return offsets.limit() - 1;
+    }
+
+    /**
+     * Return the number of edges in the graph.
+     *
+     * @return the number of edges in the graph
+     */
+    public int getEdgeCount() {
+        return targets.limit();
+    }
+
+    /**
+     * Check whether the graph contains a node with the provided data.
+     *
+     * @param data the node contents to check for
+     * @return true if data item is stored in a node within the graph, or
+     *         false otherwise
+     */
+    public boolean containsNode(NodeType data) {
+        return ids.containsKey(data);
+    }
+
+    /**
+     * Returns the id of the node that stores the provided data.
+     *
+     * @param data the node contents to look up
+     * @return the id of that node
+     * @throws NoSuchElementException if data is not stored in this graph
+     */
+    public int getId(NodeType data) {
+        return ids.get(data);
+    }
+
+    /**
+     * Returns the data stored in the node with the provided id.
+     *
+     * @param id the id of the node
+     * @return the data stored in that node
+     */
+    public NodeType getData(int id) {
+        return names[id];
+    }
+
+    /**
+     * Returns the first edge slot of a node. The node's edges are stored in
+     * slots edgesStart(id) through edgesEnd(id)-1.
+     *
+     * @param id the id of the node
+     * @return the first edge slot of that node
+     */
+    public int edgesStart(int id) {
+        return offsets.get(id);
+    }
+
+    /**
+     * Returns the slot after the last edge leaving a node.
+     *
+     * @param id the id of the node
+     * @return the slot after the last edge of that node
+     */
+    public int edgesEnd(int id) {
+        return offsets.get(id + 1);
+    }
+
+    /**
+     * Returns the id of the successor node of the edge in the provided slot.
+     *
+     * @param edge the slot of the edge
+     * @return the id of the node this edge leads to
+     */
+    public int edgeTarget(int edge) {
+        return targets.get(edge);
+    }
+
+    /**
+     * Returns the weight of the edge in the provided slot.
+     *
+     * @param edge the slot of the edge
+     * @return the weight of this edge
+     */
+    public double edgeWeight(int edge) {
+        return weights.get(edge);
+    }
+
+    /**
+     * Return the weight of the edge between two nodes.
+     *
+     * @param pred the data item contained in the source node for the edge
+     * @param succ the data item contained in the target node for the edge
+     * @return the weight of the edge between those nodes
+     * @throws NoSuchElementException if either node or the edge between them
+     *                                are not found within this graph
+     */
+    public double getEdge(NodeType pred, NodeType succ) {
+        int target = getId(succ);
+        int predId = getId(pred);
+        for (int edge = edgesStart(predId); edge < edgesEnd(predId); edge++)
+            if (edgeTarget(edge) == target)
+                return edgeWeight(edge);
+        throw new NoSuchElementException("No edge from " + pred + " to " + succ);
+    }
+
+    /**
+     * Check whether an edge exists between two nodes with the provided data.
+     *
+     * @param pred the data item contained in the source node for the edge
+     * @param succ the data item contained in the target node for the edge
+     * @return true if both nodes and the edge between them are found within
+     *         this graph, or false otherwise
+     */
+    public boolean containsEdge(NodeType pred, NodeType succ) {
+        if (!containsNode(pred) || !containsNode(succ))
+            return false;
+        int target = getId(succ);
+        int predId = getId(pred);
+        for (int edge = edgesStart(predId); edge < edgesEnd(predId); edge++)
+            if (edgeTarget(edge) == target)
+                return true;
+        return false;
+    }
+
+    /**
+     * This helper method runs Dijkstra's algorithm from the source node. The
+     * search stops when the target node is settled, or when the cheapest
+     * remaining path costs more than maxCost, or when every reachable node
+     * has been settled.
+     *
+     * @param source  the id of the starting node
+     * @param target  the id of the node to stop at, or -1 to search the whole
+     *                reachable graph
+     * @param maxCost the largest path cost to settle
+     * @return the Search holding the cost and predecessor of settled nodes
+     */
+    protected Search computeShortestPaths(int source, int target, double maxCost) {
+        return computeShortestPaths(source, target, maxCost, CancellationToken.NONE);
+    }
+
+    /**
+     * Runs the same search as computeShortestPaths(source, target, maxCost),
+     * checking the provided token every CancellationToken.CHECK_INTERVAL
+     * settled nodes.
+     *
+     * @param source  the id of the starting node
+     * @param target  the id of the node to stop at, or -1 to search the whole
+     *                reachable graph
+     * @param maxCost the largest path cost to settle
+     * @param token   stops the search once it is cancelled or expires
+     * @return the Search holding the cost and predecessor of settled nodes
+     * @throws CancellationException when the token stopped the search
+     */
+    protected Search computeShortestPaths(int source, int target, double maxCost,
+            CancellationToken token) {
+        return computeShortestPaths(source, target, null, 0, maxCost, token);
+    }
+
+    /**
+     * Runs the same search as computeShortestPaths(source, target, maxCost,
+     * token), but also stops once every one of a set of target nodes has
+     * been settled.
+     *
+     * @param source      the id of the starting node
+     * @param target      the id of the node to stop at, or -1 to search the
+     *                    whole reachable graph
+     * @param targets     marks the target nodes by id, or null when there
+     *                    are none
+     * @param targetCount the number of marked target nodes
+     * @param maxCost     the largest path cost to settle
+     * @param token       stops the search once it is cancelled or expires
+     * @return the Search holding the cost and predecessor of settled nodes
+     * @throws CancellationException when the token stopped the search
+     */
+    protected Search computeShortestPaths(int source, int target, boolean[] targets,
+            int targetCount, double maxCost, CancellationToken token) {
+        Search search = new Search(getNodeCount());
+        IndexedMinHeap queue = new IndexedMinHeap(getNodeCount());
+        search.cost[source] = 0;
+        queue.insertOrDecrease(source, 0);
+
+        while (!queue.isEmpty()) {
+            if (queue.peekKey() > maxCost)
+                break;
+            int node = queue.removeMin();
+            search.settled[search.settledCount++] = node;
+            token.check(search.settledCount);
+            if (node == target || targets != null && targets[node] && --targetCount == 0)
+                break;
+
+            double nodeCost = search.cost[node];
+            for (int edge = edgesStart(node); edge < edgesEnd(node); edge++) {
+                int next = edgeTarget(edge);
+                double cost = nodeCost + edgeWeight(edge);
+                // settled nodes already have the lowest possible cost, so
+                // this comparison never changes them
+                if (cost < search.cost[next]) {
+                    search.cost[next] = cost;
+                    search.predecessor[next] = node;
+                    search.predecessorEdge[next] = edge;
+                    queue.insertOrDecrease(next, cost);
+                }
+            }
+        }
+        return search;
+    }
+
+    /**
+     * Returns the list of data values from nodes along the shortest path
+     * from the node with the provided start value through the node with the
+     * provided end value.
+     *
+     * @param start the data item in the starting node for the path
+     * @param end   the data item in the destination node for the path
+     * @return list of data item from node along this shortest path, or an
+     *         empty list if there is no such path
+     */
+    public List<NodeType> shortestPathData(NodeType start, NodeType end) {
+        LinkedList<NodeType> path = new LinkedList<>();
+        if (!containsNode(start) || !containsNode(end))
+            return path;
+        int target = getId(end);
+        Search search = computeShortestPaths(getId(start), target, Double.POSITIVE_INFINITY);
+        if (search.cost[target] == Double.POSITIVE_INFINITY)
+            return path;
+        for (int node = target; node != -1; node = search.predecessor[node])
+            path.addFirst(getData(node));
+        return path;
+    }
+
+    /**
+     * Returns the cost of the path (sum over edge weights) of the shortest
+     * path from the node containing the start data to the node containing the
+     * end data.
+     *
+     * @param start the data item in the starting node for the path
+     * @param end   the data item in the destination node for the path
+     * @return the cost of the shortest path between these nodes
+     * @throws NoSuchElementException when either node is not in the graph or
+     *                                there is no path between them
+     */
+    public double shortestPathCost(NodeType start, NodeType end) {
+        int target = getId(end);
+        Search search = computeShortestPaths(getId(start), target, Double.POSITIVE_INFINITY);
+        if (search.cost[target] == Double.POSITIVE_INFINITY)
+            throw new NoSuchElementException("No path from " + start + " to " + end);
+        return search.cost[target];
+    }
+
+    /**
+     * Returns the nodes along the shortest path from start to end, together
+     * with the weight of every edge on it and the cost of the path up to each
+     * node, all read from a single search.
+     *
+     * @param start the data item in the starting node for the path
+     * @param end   the data item in the destination node for the path
+     * @return PathResult of the shortest path, which is empty if there is no
+     *         such path
+     */
+    public PathResult<NodeType> shortestPathResult(NodeType start, NodeType end) {
+        return shortestPathResult(start, end, CancellationToken.NONE);
+    }
+
+    /**
+     * Returns the same result as shortestPathResult(start, end), but stops
+     * searching once the provided token is cancelled or expires.
+     *
+     * @param start the data item in the starting node for the path
+     * @param end   the data item in the destination node for the path
+     * @param token stops the search once it is cancelled or expires
+     * @return PathResult of the shortest path, which is empty if there is no
+     *         such path
+     * @throws CancellationException when the token stopped the search
+     */
+    @Override
+    public PathResult<NodeType> shortestPathResult(NodeType start, NodeType end,
+            CancellationToken token) {
+        if (!containsNode(start) || !containsNode(end))
+            return PathResult.empty();
+        int target = getId(end);
+        Search search = computeShortestPaths(getId(start), target, Double.POSITIVE_INFINITY,
+                token);
+        if (search.cost[target] == Double.POSITIVE_INFINITY)
+            return PathResult.empty();
+        LinkedList<NodeType> path = new LinkedList<>();
+        LinkedList<Double> legCosts = new LinkedList<>();
+        LinkedList<Double> cumulativeCosts = new LinkedList<>();
+        for (int node = target; node != -1; node = search.predecessor[node]) {
+            path.addFirst(getData(node));
+            cumulativeCosts.addFirst(search.cost[node]);
+            if (search.predecessor[node] != -1)
+                legCosts.addFirst(edgeWeight(search.predecessorEdge[node]));
+        }
+        return new PathResult<>(path, legCosts, cumulativeCosts);
+    }
+
+    /**
+     * Returns the shortest paths from the node with the provided start value
+     * to every node reachable from it.
+     *
+     * @param start the data item in the starting node for the paths
+     * @return ShortestPathTree with the cost and predecessor of every
+     *         reachable node
+     * @throws NoSuchElementException when start is not in the graph
+     */
+    public ShortestPathTree<NodeType> shortestPathTree(NodeType start) {
+        Search search = computeShortestPaths(getId(start), -1, Double.POSITIVE_INFINITY,
+                CancellationToken.NONE);
+        return toTree(search, start);
+    }
+
+    /**
+     * Returns the shortest paths from the node with the provided start value
+     * to every node that can be reached from it with a path cost of at most
+     * maxCost.
+     *
+     * @param start   the data item in the starting node for the paths
+     * @param maxCost the largest path cost to include in the tree
+     * @return ShortestPathTree with the cost and predecessor of every node
+     *         within maxCost of start
+     * @throws NoSuchElementException   when start is not in the graph
+     * @throws IllegalArgumentException when maxCost is negative or NaN
+     */
+    public ShortestPathTree<NodeType> shortestPathTree(NodeType start, double maxCost) {
+        return shortestPathTree(start, maxCost, CancellationToken.NONE);
+    }
+
+    /**
+     * Returns the same tree as shortestPathTree(start, maxCost), but stops
+     * searching once the provided token is cancelled or expires.
+     *
+     * @param start   the data item in the starting node for the paths
+     * @param maxCost the largest path cost to include in the tree
+     * @param token   stops the search once it is cancelled or expires
+     * @return ShortestPathTree with the cost and predecessor of every node
+     *         within maxCost of start
+     * @throws NoSuchElementException   when start is not in the graph
+     * @throws IllegalArgumentException when maxCost is negative or NaN
+     * @throws CancellationException    when the token stopped the search
+     */
+    @Override
+    public ShortestPathTree<NodeType> shortestPathTree(NodeType start, double maxCost,
+            CancellationToken token) {
+        ShortestPathTree.checkMaxCost(maxCost);
+        Search search = computeShortestPaths(getId(start), -1, maxCost, token);
+        return toTree(search, start);
+    }
+
+    /**
+     * Returns the shortest paths from the node with the provided start value
+     * to each of the provided targets that can be reached from it. The
+     * search stops once every target is settled, so it only explores the
+     * nodes that are no farther from start than its farthest target.
+     *
+     * @param start   the data item in the starting node for the paths
+     * @param targets the data items in the nodes whose paths are needed
+     * @param token   stops the search once it is cancelled or expires
+     * @return ShortestPathTree with the cost and predecessor of every
+     *         reachable target and of every node settled before it
+     * @throws NoSuchElementException when start is not in the graph
+     * @throws CancellationException  when the token stopped the search
+     */
+    @Override
+    public ShortestPathTree<NodeType> shortestPathTree(NodeType start,
+            Collection<NodeType> targets, CancellationToken token) {
+        int source = getId(start);
+        // start counts as a target, so a search for no targets in this graph
+        // stops right away
+        boolean[] isTarget = new boolean[getNodeCount()];
+        isTarget[source] = true;
+        int targetCount = 1;
+        for (NodeType target : targets) {
+            if (containsNode(target) && !isTarget[getId(target)]) {
+                isTarget[getId(target)] = true;
+                targetCount++;
+            }
+        }
+        return toTree(computeShortestPaths(source, -1, isTarget, targetCount,
+                Double.POSITIVE_INFINITY, token), start);
+    }
+
+    /**
+     * Copies the settled nodes of a search into a ShortestPathTree, in the
+     * order they were settled.
+     *
+     * @param search the finished search
+     * @param start  the data item in the starting node of the search
+     * @return the ShortestPathTree of that search
+     */
+    protected ShortestPathTree<NodeType> toTree(Search search, NodeType start) {
+        ShortestPathTree<NodeType> tree = new ShortestPathTree<>(start);
+        for (int i = 0; i < search.settledCount; i++) {
+            int node = search.settled[i];
+            int pred = search.predecessor[node];
+            if (pred == -1)
+                tree.add(getData(node), 0, null, 0);
+            else
+                tree.add(getData(node), search.cost[node], getData(pred),
+                        edgeWeight(search.predecessorEdge[node]));
+        }
+        return tree;
+    }
+
+}
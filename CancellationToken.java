@@ -0,0 +1,107 @@
+import java.util.concurrent.CancellationException;
+
+/**
+ * A CancellationToken lets a caller stop a search that is no longer needed, either by cancelling
+ * it or by giving it a deadline. Searches do not stop on their own: they check the token after
+ * every CHECK_INTERVAL settled nodes, which is often enough that they stop within a fraction of a
+ * millisecond, and rarely enough that the checks cost nothing measurable. A search that finds its
+ * token cancelled or past its deadline throws a CancellationException.
+ *
+ * One token may be shared by several searches, and cancelled from any thread.
+ */
+public class CancellationToken {
+
+  /**
+   * A token that is never cancelled and has no deadline, for searches that always run to the end.
+   */
+  public static final CancellationToken NONE = new CancellationToken();
+
+  // searches check their token whenever they have settled a multiple of this many nodes
+  public static final int CHECK_INTERVAL = 1024;
+
+  private volatile boolean cancelled = false;
+  // the System.nanoTime at which the token expires, if hasDeadline
+  private final long deadline;
+  private final boolean hasDeadline;
+
+  /**
+   * Creates a token without a deadline, which stops searches once it is cancelled.
+   */
+  public CancellationToken() {
+    this(0, false);
+  }
+
+  private CancellationToken(long deadline, boolean hasDeadline) {
+    this.deadline = deadline;
+    this.hasDeadline = hasDeadline;
+  }
+
+  /**
+   * Creates a token that expires the provided number of milliseconds from now, and stops
+   * searches once it has expired or is cancelled.
+   *
+   * @param millis the time searches with this token may take
+   * @return the new token
+   */
+  public static CancellationToken withTimeout(long millis) {
+    return new CancellationToken(System.nanoTime() + millis * 1_000_000L, true);
+  }
+
+  /**
+   * Cancels this token, so that the searches using it stop at their next check.
+   *
+   * @throws UnsupportedOperationException if this token is NONE
+   */
+  public void cancel() {
+    if (this == NONE) {
+      throw new UnsupportedOperationException("CancellationToken.NONE cannot be cancelled");
+    }
+    cancelled = true;
+  }
+
+  /**
+   * Checks whether this token was cancelled.
+   *
+   * @return true if cancel was called, or false otherwise
+   */
+  public boolean isCancelled() {
+    return cancelled;
+  }
+
+  /**
+   * Checks whether the deadline of this token has passed.
+   *
+   * @return true if this token has a deadline that has passed, or false otherwise
+   */
+  public boolean isExpired() {
+    return hasDeadline && System.nanoTime() - deadline >= 0;
+  }
+
+  /**
+   * Throws if this token was cancelled or its deadline has passed.
+   *
+   * @throws CancellationException if searches using this token should stop
+   */
+  public void throwIfCancelled() {
+    if (cancelled) {
+      throw new CancellationException("the search was cancelled");
+    }
+    if (isExpired()) {
+      throw new CancellationException("the search passed its deadline");
+    }
+  }
+
+  /**
+   * Called by searches after settling each node. Checks this token once every CHECK_INTERVAL
+   * settled nodes.
+   *
+   * @param settled the number of nodes the search has settled so far
+   * @throws CancellationException if the search should stop
+   */
+  public void check(int settled) {
+    if (settled % CHECK_INTERVAL == 0 && this != NONE) {
+      throwIfCancelled();
+    }
+  }
+
+}
@@ -0,0 +1,246 @@
+import java.util.Collection;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * This ConcurrentGraph class is a graph that can be queried by many threads
+ * while other threads change it. Its nodes and edges are kept in a
+ * DijkstraGraph that only writers touch, one writer at a time. After each
+ * change, the writer freezes that graph into an immutable CSRGraph snapshot
+ * and publishes it with a single atomic reference update. Readers never
+ * lock: every query reads the latest published snapshot once and runs
+ * entirely against it, so it sees either all or none of a change, and never
+ * waits for a writer.
+ *
+ * Freezing copies the whole graph, so changes that belong together should be
+ * made between beginUpdate and endUpdate, which publishes them as one new
+ * version. While a thread is making changes, its own queries see them right
+ * away, and the queries of all other threads see the last published version.
+ *
+ * @param NodeType is the data type stored at each graph node
+ */
+public class ConcurrentGraph<NodeType> implements GraphADT<NodeType, Double> {
+
+    // the graph that writers change, guarded by writeLock
+    protected DijkstraGraph<NodeType, Double> graph;
+    protected ReentrantLock writeLock = new ReentrantLock();
+    // the number of beginUpdate calls that have not been ended yet
+    private int updateDepth = 0;
+    // true when graph has changes that are not published yet
+    private boolean changed = false;
+    // the latest published version of graph, which readers query
+    protected AtomicReference<CSRGraph<NodeType>> snapshot = new AtomicReference<>();
+
+    /**
+     * Creates an empty concurrent graph.
+     */
+    public ConcurrentGraph() {
+        this(new DijkstraGraph<>());
+    }
+
+    /**
+     * Creates a concurrent graph that takes over the provided graph. The
+     * graph must not be changed directly afterwards, or the changes will not
+     * be published.
+     *
+     * @param graph the graph holding the initial nodes and edges
+     */
+    public ConcurrentGraph(DijkstraGraph<NodeType, Double> graph) {
+        this.graph = graph;
+        snapshot.set(graph.freeze());
+    }
+
+    /**
+     * Returns the latest published version of this graph. Queries against
+     * the returned snapshot all see the same version, even while writers
+     * publish newer ones.
+     *
+     * @return the immutable snapshot that queries currently run against
+     */
+    public CSRGraph<NodeType> getSnapshot() {
+        return snapshot.get();
+    }
+
+    /**
+     * Starts a batch of changes that are published together by the matching
+     * call to endUpdate. Batches may be nested; the changes are published
+     * when the outermost batch ends. Other writers wait until then, but
+     * readers keep querying the last published version.
+     */
+    public void beginUpdate() {
+        writeLock.lock();
+        updateDepth++;
+    }
+
+    /**
+     * Ends a batch of changes started by beginUpdate, and publishes the
+     * changes if this ends the outermost batch.
+     *
+     * @throws IllegalMonitorStateException if the calling thread has not
+     *                                      started a batch
+     */
+    public void endUpdate() {
+        if (!writeLock.isHeldByCurrentThread())
+            throw new IllegalMonitorStateException("endUpdate without beginUpdate");
+        try {
+            if (--updateDepth == 0 && changed)
+                publish();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    // freezes graph into a new snapshot and makes it visible to readers
+    private void publish() {
+        snapshot.set(graph.freeze());
+        changed = false;
+    }
+
+    // records the result of a change, and publishes it unless a batch is open
+    private boolean changed(boolean change) {
+        changed |= change;
+        if (updateDepth == 0 && changed)
+            publish();
+        return change;
+    }
+
+    // the graph that queries of the calling thread run against
+    private ShortestPathADT<NodeType> reader() {
+        return writeLock.isHeldByCurrentThread() ? graph : snapshot.get();
+    }
+
+    public boolean insertNode(NodeType data) {
+        writeLock.lock();
+        try {
+            return changed(graph.insertNode(data));
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    public boolean removeNode(NodeType data) {
+        writeLock.lock();
+        try {
+            return changed(graph.removeNode(data));
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    public boolean insertEdge(NodeType pred, NodeType succ, Double weight) {
+        writeLock.lock();
+        try {
+            return changed(graph.insertEdge(pred, succ, weight));
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Inserts many edges at once, along with any of their nodes that are not
+     * in the graph yet, and publishes them as one new version.
+     *
+     * @param preds   the data of the node each edge leaves
+     * @param succs   the data of the node each edge enters
+     * @param weights the weight of each edge
+     * @see BaseGraph#insertEdges
+     */
+    public void insertEdges(List<NodeType> preds, List<NodeType> succs, List<Double> weights) {
+        writeLock.lock();
+        try {
+            graph.insertEdges(preds, succs, weights);
+            changed(true);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    public boolean removeEdge(NodeType pred, NodeType succ) {
+        writeLock.lock();
+        try {
+            return changed(graph.removeEdge(pred, succ));
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    public boolean containsNode(NodeType data) {
+        if (writeLock.isHeldByCurrentThread())
+            return graph.containsNode(data);
+        return snapshot.get().containsNode(data);
+    }
+
+    public int getNodeCount() {
+        if (writeLock.isHeldByCurrentThread())
+            return graph.getNodeCount();
+        return snapshot.get().getNodeCount();
+    }
+
+    public boolean containsEdge(NodeType pred, NodeType succ) {
+        if (writeLock.isHeldByCurrentThread())
+            return graph.containsEdge(pred, succ);
+        return snapshot.get().containsEdge(pred, succ);
+    }
+
+    /**
+     * Return the weight of an edge.
+     *
+     * @param pred the data item contained in the source node for the edge
+     * @param succ the data item contained in the target node for the edge
+     * @return the weight of the edge between those nodes
+     * @throws NoSuchElementException if either node or the edge between them
+     *                                are not found within this graph
+     */
+    public Double getEdge(NodeType pred, NodeType succ) {
+        if (writeLock.isHeldByCurrentThread())
+            return graph.getEdge(pred, succ);
+        return snapshot.get().getEdge(pred, succ);
+    }
+
+    public int getEdgeCount() {
+        if (writeLock.isHeldByCurrentThread())
+            return graph.getEdgeCount();
+        return snapshot.get().getEdgeCount();
+    }
+
+    public List<NodeType> shortestPathData(NodeType start, NodeType end) {
+        return reader().shortestPathData(start, end);
+    }
+
+    public double shortestPathCost(NodeType start, NodeType end) {
+        return reader().shortestPathCost(start, end);
+    }
+
+    public PathResult<NodeType> shortestPathResult(NodeType start, NodeType end) {
+        return reader().shortestPathResult(start, end);
+    }
+
+    public ShortestPathTree<NodeType> shortestPathTree(NodeType start) {
+        return reader().shortestPathTree(start);
+    }
+
+    public ShortestPathTree<NodeType> shortestPathTree(NodeType start, double maxCost) {
+        return reader().shortestPathTree(start, maxCost);
+    }
+
+    @Override
+    public PathResult<NodeType> shortestPathResult(NodeType start, NodeType end,
+            CancellationToken token) {
+        return reader().shortestPathResult(start, end, token);
+    }
+
+    @Override
+    public ShortestPathTree<NodeType> shortestPathTree(NodeType start, double maxCost,
+            CancellationToken token) {
+        return reader().shortestPathTree(start, maxCost, token);
+    }
+
+    @Override
+    public ShortestPathTree<NodeType> shortestPathTree(NodeType start,
+            Collection<NodeType> targets, CancellationToken token) {
+        return reader().shortestPathTree(start, targets, token);
+    }
+
+}
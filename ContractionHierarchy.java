@@ -0,0 +1,639 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * This ContractionHierarchy class answers point to point shortest path
+ * queries on a CSRGraph snapshot after a preprocessing step that contracts
+ * every node in turn. Contracting a node removes it from the remaining graph
+ * and adds a shortcut edge between each pair of its neighbors whose shortest
+ * path ran through it. The order in which nodes are contracted is their rank.
+ *
+ * Every shortest path then has an equally short version that first climbs to
+ * higher ranked nodes and then descends, so a query only runs two small
+ * searches: one from the start along upward edges, and one backward from the
+ * end along downward edges. Shortcuts on the resulting path are unpacked into
+ * the original edges they stand for, so the returned paths and costs use the
+ * same nodes and edge weights as the original graph.
+ *
+ * Preprocessing can take much longer than a single Dijkstra search, but each
+ * query afterwards settles only a tiny part of the graph.
+ */
+public class ContractionHierarchy<NodeType> implements ShortestPathADT<NodeType> {
+
+    // witness searches stop after settling this many nodes and add the
+    // shortcut, which is always safe but may be unnecessary
+    protected static final int WITNESS_SETTLE_LIMIT = 500;
+
+    protected CSRGraph<NodeType> graph;
+    // the position of each node in the contraction order
+    protected int[] rank;
+    // edges from each node to higher ranked nodes, in compressed sparse row
+    // form; middle is the contracted node a shortcut skips, or -1
+    protected int[] upOffsets;
+    protected int[] upTargets;
+    protected double[] upWeights;
+    protected int[] upMiddle;
+    // edges into each node from higher ranked nodes, stored with the node
+    // they come from so they can be followed backwards
+    protected int[] downOffsets;
+    protected int[] downSources;
+    protected double[] downWeights;
+    protected int[] downMiddle;
+
+    // states of finished queries, which are borrowed by later queries so they
+    // can be reused without clearing arrays the size of the whole graph; the
+    // pool never holds more states than the most queries ever run at once
+    private final Queue<QueryState> queryStates = new ConcurrentLinkedQueue<>();
+
+    // an edge of the graph while it is being contracted
+    protected static class ContractionEdge {
+        public int other;
+        public double weight;
+        public int middle;
+
+        public ContractionEdge(int other, double weight, int middle) {
+            this.other = other;
+            this.weight = weight;
+            this.middle = middle;
+        }
+    }
+
+    // costs, predecessors and queues of the two searches run by one query
+    protected static class QueryState {
+        public double[] forwardCost;
+        public double[] backwardCost;
+        public int[] forwardEdge;
+        public int[] backwardEdge;
+        public int[] forwardPredecessor;
+        public int[] backwardPredecessor;
+        public IndexedMinHeap forwardQueue;
+        public IndexedMinHeap backwardQueue;
+        // nodes whose entries must be reset before the next query
+        public int[] touched;
+        public int touchedCount = 0;
+
+        public QueryState(int nodeCount) {
+            forwardCost = new double[nodeCount];
+            backwardCost = new double[nodeCount];
+            Arrays.fill(forwardCost, Double.POSITIVE_INFINITY);
+            Arrays.fill(backwardCost, Double.POSITIVE_INFINITY);
+            forwardEdge = new int[nodeCount];
+            backwardEdge = new int[nodeCount];
+            forwardPredecessor = new int[nodeCount];
+            backwardPredecessor = new int[nodeCount];
+            forwardQueue = new IndexedMinHeap(nodeCount);
+            backwardQueue = new IndexedMinHeap(nodeCount);
+            touched = new int[2 * nodeCount];
+        }
+
+        public void reset() {
+            for (int i = 0; i < touchedCount; i++) {
+                forwardCost[touched[i]] = Double.POSITIVE_INFINITY;
+                backwardCost[touched[i]] = Double.POSITIVE_INFINITY;
+            }
+            touchedCount = 0;
+            forwardQueue.clear();
+            backwardQueue.clear();
+        }
+    }
+
+    /**
+     * Builds a contraction hierarchy for the provided graph snapshot.
+     *
+     * @param graph the graph to answer queries about
+     */
+    public ContractionHierarchy(CSRGraph<NodeType> graph) {
+        this.graph = graph;
+        contractAll();
+    }
+
+    /**
+     * Return the number of nodes in the graph.
+     *
+     * @return the number of nodes in the graph
+     */
+    public int getNodeCount() {
+        return graph.getNodeCount();
+    }
+
+    /**
+     * Return the number of upward and downward edges in the hierarchy,
+     * including shortcuts.
+     *
+     * @return the number of edges searched by queries
+     */
+    public int getHierarchyEdgeCount() {
+        return upTargets.length + downSources.length;
+    }
+
+    /**
+     * Contracts every node of the graph, choosing the next node to contract
+     * by its edge difference (shortcuts added minus edges removed) plus the
+     * number of its neighbors already contracted, which keeps the hierarchy
+     * small and evenly spread. Priorities are updated lazily: a node taken
+     * from the queue is contracted only if its current priority is still the
+     * lowest.
+     */
+    protected void contractAll() {
+        int nodeCount = graph.getNodeCount();
+        List<List<ContractionEdge>> out = new ArrayList<>(nodeCount);
+        List<List<ContractionEdge>> in = new ArrayList<>(nodeCount);
+        for (int v = 0; v < nodeCount; v++) {
+            out.add(new ArrayList<>());
+            in.add(new ArrayList<>());
+        }
+        for (int u = 0; u < nodeCount; u++)
+            for (int edge = graph.edgesStart(u); edge < graph.edgesEnd(u); edge++)
+                if (graph.edgeTarget(edge) != u) // loops are never on a shortest path
+                    addEdge(out, in, u, graph.edgeTarget(edge), graph.edgeWeight(edge), -1);
+
+        List<List<ContractionEdge>> up = new ArrayList<>(nodeCount);
+        List<List<ContractionEdge>> down = new ArrayList<>(nodeCount);
+        int[] contractedNeighbors = new int[nodeCount];
+        WitnessSearch witness = new WitnessSearch(nodeCount);
+        IndexedMinHeap order = new IndexedMinHeap(nodeCount);
+        for (int v = 0; v < nodeCount; v++) {
+            up.add(null);
+            down.add(null);
+            order.insertOrDecrease(v, priority(v, out, in, contractedNeighbors, witness));
+        }
+
+        rank = new int[nodeCount];
+        int nextRank = 0;
+        while (!order.isEmpty()) {
+            int v = order.removeMin();
+            double priority = priority(v, out, in, contractedNeighbors, witness);
+            if (!order.isEmpty() && priority > order.peekKey()) {
+                order.insertOrDecrease(v, priority);
+                continue;
+            }
+            rank[v] = nextRank++;
+            contract(v, out, in, witness, true);
+
+            // every remaining neighbor of v has a higher rank than v
+            up.set(v, out.get(v));
+            down.set(v, in.get(v));
+            for (ContractionEdge edge : out.get(v)) {
+                removeEdgeTo(in.get(edge.other), v);
+                contractedNeighbors[edge.other]++;
+            }
+            for (ContractionEdge edge : in.get(v)) {
+                removeEdgeTo(out.get(edge.other), v);
+                contractedNeighbors[edge.other]++;
+            }
+            out.set(v, null);
+            in.set(v, null);
+        }
+
+        upOffsets = new int[nodeCount + 1];
+        downOffsets = new int[nodeCount + 1];
+        for (int v = 0; v < nodeCount; v++) {
+            upOffsets[v + 1] = upOffsets[v] + up.get(v).size();
+            downOffsets[v + 1] = downOffsets[v] + down.get(v).size();
+        }
+        upTargets = new int[upOffsets[nodeCount]];
+        upWeights = new double[upOffsets[nodeCount]];
+        upMiddle = new int[upOffsets[nodeCount]];
+        downSources = new int[downOffsets[nodeCount]];
+        downWeights = new double[downOffsets[nodeCount]];
+        downMiddle = new int[downOffsets[nodeCount]];
+        for (int v = 0; v < nodeCount; v++) {
+            int slot = upOffsets[v];
+            for (ContractionEdge edge : up.get(v)) {
+                upTargets[slot] = edge.other;
+                upWeights[slot] = edge.weight;
+                upMiddle[slot++] = edge.middle;
+            }
+            slot = downOffsets[v];
+            for (ContractionEdge edge : down.get(v)) {
+                downSources[slot] = edge.other;
+                downWeights[slot] = edge.weight;
+                downMiddle[slot++] = edge.middle;
+            }
+        }
+    }
+
+    private double priority(int v, List<List<ContractionEdge>> out,
+            List<List<ContractionEdge>> in, int[] contractedNeighbors, WitnessSearch witness) {
+        int shortcuts = contract(v, out, in, witness, false);
+        return shortcuts - out.get(v).size() - in.get(v).size() + contractedNeighbors[v];
+    }
+
+    /**
+     * Finds the shortcuts needed to contract node v: for each pair of edges
+     * u->v and v->w, a shortcut u->w is needed unless a witness search from u
+     * that avoids v finds a path to w that is no more expensive.
+     *
+     * @param v       the node to contract
+     * @param out     the remaining edges leaving each node
+     * @param in      the remaining edges entering each node
+     * @param witness the search used to look for witness paths
+     * @param apply   true to add the shortcuts, or false to only count them
+     * @return the number of shortcuts needed
+     */
+    private int contract(int v, List<List<ContractionEdge>> out,
+            List<List<ContractionEdge>> in, WitnessSearch witness, boolean apply) {
+        int shortcuts = 0;
+        for (ContractionEdge inEdge : in.get(v)) {
+            int u = inEdge.other;
+            double maxCost = 0;
+            for (ContractionEdge outEdge : out.get(v))
+                if (outEdge.other != u)
+                    maxCost = Math.max(maxCost, inEdge.weight + outEdge.weight);
+            witness.run(u, v, maxCost, out);
+            for (ContractionEdge outEdge : out.get(v)) {
+                int w = outEdge.other;
+                double cost = inEdge.weight + outEdge.weight;
+                if (w == u || witness.cost(w) <= cost)
+                    continue;
+                shortcuts++;
+                if (apply)
+                    addEdge(out, in, u, w, cost, v);
+            }
+        }
+        return shortcuts;
+    }
+
+    // adds the edge u->w, or lowers the weight of an existing edge u->w
+    private static void addEdge(List<List<ContractionEdge>> out, List<List<ContractionEdge>> in,
+            int u, int w, double weight, int middle) {
+        for (ContractionEdge edge : out.get(u))
+            if (edge.other == w) {
+                if (weight < edge.weight) {
+                    edge.weight = weight;
+                    edge.middle = middle;
+                    for (ContractionEdge reverse : in.get(w))
+                        if (reverse.other == u) {
+                            reverse.weight = weight;
+                            reverse.middle = middle;
+                        }
+                }
+                return;
+            }
+        out.get(u).add(new ContractionEdge(w, weight, middle));
+        in.get(w).add(new ContractionEdge(u, weight, middle));
+    }
+
+    private static void removeEdgeTo(List<ContractionEdge> edges, int other) {
+        for (int i = 0; i < edges.size(); i++)
+            if (edges.get(i).other == other) {
+                edges.set(i, edges.get(edges.size() - 1));
+                edges.remove(edges.size() - 1);
+                return;
+            }
+    }
+
+    // a Dijkstra search over the remaining graph that skips one node, and
+    // only resets the entries it touched between runs
+    private static class WitnessSearch {
+        private double[] cost;
+        private int[] touched;
+        private int touchedCount = 0;
+        private IndexedMinHeap queue;
+
+        public WitnessSearch(int nodeCount) {
+            cost = new double[nodeCount];
+            Arrays.fill(cost, Double.POSITIVE_INFINITY);
+            touched = new int[nodeCount];
+            queue = new IndexedMinHeap(nodeCount);
+        }
+
+        public double cost(int node) {
+            return cost[node];
+        }
+
+        public void run(int source, int avoid, double maxCost, List<List<ContractionEdge>> out) {
+            for (int i = 0; i < touchedCount; i++)
+                cost[touched[i]] = Double.POSITIVE_INFINITY;
+            touchedCount = 0;
+            queue.clear();
+
+            cost[source] = 0;
+            touched[touchedCount++] = source;
+            queue.insertOrDecrease(source, 0);
+            int settled = 0;
+            while (!queue.isEmpty() && queue.peekKey() <= maxCost
+                    && settled++ < WITNESS_SETTLE_LIMIT) {
+                int node = queue.removeMin();
+                for (ContractionEdge edge : out.get(node)) {
+                    if (edge.other == avoid)
+                        continue;
+                    double newCost = cost[node] + edge.weight;
+                    if (newCost < cost[edge.other]) {
+                        if (cost[edge.other] == Double.POSITIVE_INFINITY)
+                            touched[touchedCount++] = edge.other;
+                        cost[edge.other] = newCost;
+                        queue.insertOrDecrease(edge.other, newCost);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * This helper method runs the upward search from source and the downward
+     * search from target, and returns the original edges of the shortest
+     * path between them. Each direction stops once its cheapest queued path
+     * costs at least as much as the best path found so far.
+     *
+     * @param source the id of the starting node
+     * @param target the id of the destination node
+     * @param legs   receives the weight of each edge along the path
+     * @return the ids of the nodes along the shortest path, in order
+     * @throws NoSuchElementException when there is no path from source to
+     *                                target
+     */
+    protected List<Integer> computeShortestPath(int source, int target, List<Double> legs) {
+        QueryState state = queryStates.poll();
+        if (state == null)
+            state = new QueryState(graph.getNodeCount());
+        try {
+            return computeShortestPath(state, source, target, legs);
+        } finally {
+            state.reset();
+            queryStates.offer(state);
+        }
+    }
+
+    /**
+     * This helper method runs the query of computeShortestPath using the
+     * provided state, which must be reset and not used by any other query.
+     *
+     * @param state  the costs, predecessors and queues to search with
+     * @param source the id of the starting node
+     * @param target the id of the destination node
+     * @param legs   receives the weight of each edge along the path
+     * @return the ids of the nodes along the shortest path, in order
+     * @throws NoSuchElementException when there is no path from source to
+     *                                target
+     */
+    protected List<Integer> computeShortestPath(QueryState state, int source, int target,
+            List<Double> legs) {
+        double[] forwardCost = state.forwardCost;
+        double[] backwardCost = state.backwardCost;
+        IndexedMinHeap forwardQueue = state.forwardQueue;
+        IndexedMinHeap backwardQueue = state.backwardQueue;
+
+        forwardCost[source] = 0;
+        backwardCost[target] = 0;
+        state.touched[state.touchedCount++] = source;
+        state.touched[state.touchedCount++] = target;
+        forwardQueue.insertOrDecrease(source, 0);
+        backwardQueue.insertOrDecrease(target, 0);
+
+        double bestCost = source == target ? 0 : Double.POSITIVE_INFINITY;
+        int meet = source == target ? source : -1;
+        while (true) {
+            boolean forwardDone = forwardQueue.isEmpty() || forwardQueue.peekKey() >= bestCost;
+            boolean backwardDone = backwardQueue.isEmpty() || backwardQueue.peekKey() >= bestCost;
+            if (forwardDone && backwardDone)
+                break;
+            if (!forwardDone && (backwardDone || forwardQueue.peekKey() <= backwardQueue.peekKey())) {
+                int node = forwardQueue.removeMin();
+                if (forwardCost[node] + backwardCost[node] < bestCost) {
+                    bestCost = forwardCost[node] + backwardCost[node];
+                    meet = node;
+                }
+                for (int edge = upOffsets[node]; edge < upOffsets[node + 1]; edge++) {
+                    int next = upTargets[edge];
+                    double cost = forwardCost[node] + upWeights[edge];
+                    if (cost < forwardCost[next]) {
+                        if (forwardCost[next] == Double.POSITIVE_INFINITY
+                                && backwardCost[next] == Double.POSITIVE_INFINITY)
+                            state.touched[state.touchedCount++] = next;
+                        forwardCost[next] = cost;
+                        state.forwardEdge[next] = edge;
+                        state.forwardPredecessor[next] = node;
+                        forwardQueue.insertOrDecrease(next, cost);
+                    }
+                }
+            } else {
+                int node = backwardQueue.removeMin();
+                if (forwardCost[node] + backwardCost[node] < bestCost) {
+                    bestCost = forwardCost[node] + backwardCost[node];
+                    meet = node;
+                }
+                for (int edge = downOffsets[node]; edge < downOffsets[node + 1]; edge++) {
+                    int next = downSources[edge];
+                    double cost = backwardCost[node] + downWeights[edge];
+                    if (cost < backwardCost[next]) {
+                        if (forwardCost[next] == Double.POSITIVE_INFINITY
+                                && backwardCost[next] == Double.POSITIVE_INFINITY)
+                            state.touched[state.touchedCount++] = next;
+                        backwardCost[next] = cost;
+                        state.backwardEdge[next] = edge;
+                        state.backwardPredecessor[next] = node;
+                        backwardQueue.insertOrDecrease(next, cost);
+                    }
+                }
+            }
+        }
+        if (meet == -1)
+            throw new NoSuchElementException();
+
+        // collect the hierarchy edges from source up to meet and down to target
+        LinkedList<int[]> edges = new LinkedList<>();
+        for (int node = meet; node != source; node = state.forwardPredecessor[node]) {
+            int edge = state.forwardEdge[node];
+            edges.addFirst(new int[] {state.forwardPredecessor[node], node, upMiddle[edge],
+                    edge, 1});
+        }
+        for (int node = meet; node != target; node = state.backwardPredecessor[node]) {
+            int edge = state.backwardEdge[node];
+            edges.addLast(new int[] {node, state.backwardPredecessor[node], downMiddle[edge],
+                    edge, 0});
+        }
+
+        List<Integer> path = new ArrayList<>();
+        path.add(source);
+        for (int[] edge : edges) {
+            double weight = edge[4] == 1 ? upWeights[edge[3]] : downWeights[edge[3]];
+            unpack(edge[0], edge[1], edge[2], weight, path, legs);
+        }
+        return path;
+    }
+
+    /**
+     * Appends the nodes after from along the hierarchy edge from->to to
+     * path, replacing shortcuts by the two edges they skip over until only
+     * original edges remain.
+     *
+     * @param from   the node the edge starts at
+     * @param to     the node the edge ends at
+     * @param middle the node a shortcut skips, or -1 for an original edge
+     * @param weight the weight of the edge
+     * @param path   receives the nodes after from, ending with to
+     * @param legs   receives the weight of each original edge
+     */
+    protected void unpack(int from, int to, int middle, double weight, List<Integer> path,
+            List<Double> legs) {
+        // each entry holds from, to and middle of an edge still to unpack,
+        // with the weight of that edge kept in a parallel stack
+        LinkedList<int[]> stack = new LinkedList<>();
+        LinkedList<Double> weights = new LinkedList<>();
+        stack.push(new int[] {from, to, middle});
+        weights.push(weight);
+        while (!stack.isEmpty()) {
+            int[] edge = stack.pop();
+            double edgeWeight = weights.pop();
+            if (edge[2] == -1) {
+                path.add(edge[1]);
+                legs.add(edgeWeight);
+                continue;
+            }
+            // the skipped node ranks below both ends, so edge[0]->m is one of
+            // m's downward edges and m->edge[1] one of its upward edges
+            int m = edge[2];
+            int second = findEdge(upOffsets, upTargets, m, edge[1]);
+            int first = findEdge(downOffsets, downSources, m, edge[0]);
+            stack.push(new int[] {m, edge[1], upMiddle[second]});
+            weights.push(upWeights[second]);
+            stack.push(new int[] {edge[0], m, downMiddle[first]});
+            weights.push(downWeights[first]);
+        }
+    }
+
+    private static int findEdge(int[] offsets, int[] others, int node, int other) {
+        for (int edge = offsets[node]; edge < offsets[node + 1]; edge++)
+            if (others[edge] == other)
+                return edge;
+        throw new IllegalStateException("missing hierarchy edge");
+    }
+
+    /**
+     * Returns the list of data values from nodes along the shortest path
+     * from the node with the provided start value through the node with the
+     * provided end value.
+     *
+     * @param start the data item in the starting node for the path
+     * @param end   the data item in the destination node for the path
+     * @return list of data item from node along this shortest path, or an
+     *         empty list if there is no such path
+     */
+    public List<NodeType> shortestPathData(NodeType start, NodeType end) {
+        LinkedList<NodeType> path = new LinkedList<>();
+        try {
+            for (int node : computeShortestPath(graph.getId(start), graph.getId(end),
+                    new ArrayList<>()))
+                path.add(graph.getData(node));
+        } catch (NoSuchElementException e) {
+            path.clear();
+        }
+        return path;
+    }
+
+    /**
+     * Returns the cost of the path (sum over edge weights) of the shortest
+     * path from the node containing the start data to the node containing the
+     * end data. The weights of the original edges are added up from the start
+     * of the path, the same way a forward Dijkstra search adds them.
+     *
+     * @param start the data item in the starting node for the path
+     * @param end   the data item in the destination node for the path
+     * @return the cost of the shortest path between these nodes
+     * @throws NoSuchElementException when either node is not in the graph or
+     *                                there is no path between them
+     */
+    public double shortestPathCost(NodeType start, NodeType end) {
+        List<Double> legs = new ArrayList<>();
+        computeShortestPath(graph.getId(start), graph.getId(end), legs);
+        double cost = 0;
+        for (double leg : legs)
+            cost += leg;
+        return cost;
+    }
+
+    /**
+     * Returns the nodes along the shortest path from start to end, together
+     * with the weight of every original edge on it, from a single unpacked
+     * hierarchy query.
+     *
+     * @param start the data item in the starting node for the path
+     * @param end   the data item in the destination node for the path
+     * @return PathResult of the shortest path, which is empty if there is no
+     *         such path
+     */
+    public PathResult<NodeType> shortestPathResult(NodeType start, NodeType end) {
+        List<NodeType> path = new ArrayList<>();
+        List<Double> legs = new ArrayList<>();
+        try {
+            for (int node : computeShortestPath(graph.getId(start), graph.getId(end), legs))
+                path.add(graph.getData(node));
+        } catch (NoSuchElementException e) {
+            return PathResult.empty();
+        }
+        return new PathResult<>(path, legs);
+    }
+
+    /**
+     * Returns the shortest paths from start to every reachable node. A
+     * hierarchy is built for point to point queries, so this runs Dijkstra's
+     * algorithm on the underlying snapshot.
+     *
+     * @param start the data item in the starting node for the paths
+     * @return ShortestPathTree with the cost and predecessor of every
+     *         reachable node
+     * @throws NoSuchElementException when start is not in the graph
+     */
+    public ShortestPathTree<NodeType> shortestPathTree(NodeType start) {
+        return graph.shortestPathTree(start);
+    }
+
+    /**
+     * Returns the shortest paths from start to every node within maxCost of
+     * it, using Dijkstra's algorithm on the underlying snapshot.
+     *
+     * @param start   the data item in the starting node for the paths
+     * @param maxCost the largest path cost to include in the tree
+     * @return ShortestPathTree with the cost and predecessor of every node
+     *         within maxCost of start
+     * @throws NoSuchElementException when start is not in the graph
+     */
+    public ShortestPathTree<NodeType> shortestPathTree(NodeType start, double maxCost) {
+        return graph.shortestPathTree(start, maxCost);
+    }
+
+    /**
+     * Returns the same tree as shortestPathTree(start, maxCost), stopping
+     * the search on the underlying snapshot once the provided token is
+     * cancelled or expires. Point to point queries are answered too fast to
+     * need a token.
+     *
+     * @param start   the data item in the starting node for the paths
+     * @param maxCost the largest path cost to include in the tree
+     * @param token   stops the search once it is cancelled or expires
+     * @return ShortestPathTree with the cost and predecessor of every node
+     *         within maxCost of start
+     * @throws NoSuchElementException when start is not in the graph
+     */
+    @Override
+    public ShortestPathTree<NodeType> shortestPathTree(NodeType start, double maxCost,
+            CancellationToken token) {
+        return graph.shortestPathTree(start, maxCost, token);
+    }
+
+    /**
+     * Returns a tree holding the shortest paths from start to each of the
+     * provided targets, from a search on the underlying snapshot that stops
+     * once every target is settled.
+     *
+     * @param start   the data item in the starting node for the paths
+     * @param targets the data items in the nodes whose paths are needed
+     * @param token   stops the search once it is cancelled or expires
+     * @return ShortestPathTree with the cost and predecessor of every
+     *         reachable target and of every node settled before it
+     * @throws NoSuchElementException when start is not in the graph
+     */
+    @Override
+    public ShortestPathTree<NodeType> shortestPathTree(NodeType start,
+            Collection<NodeType> targets, CancellationToken token) {
+        return graph.shortestPathTree(start, targets, token);
+    }
+
+}
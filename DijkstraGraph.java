@@ -1,12 +1,18 @@
-import java.util.PriorityQueue;
-
 import org.junit.Test;
 import org.junit.jupiter.api.Assertions;
 
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Collection;
 import java.util.List;
 import java.util.Arrays;
 import java.util.LinkedList;
 import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.concurrent.CancellationException;
 
 /**
  * This class extends the BaseGraph data structure with additional methods for
@@ -25,20 +31,25 @@ public class DijkstraGraph<NodeType, EdgeType extends Number>
      * field. The total cost of this path is stored in its cost field. And the
      * predecessor SearchNode within this path is referened by the predecessor
      * field (this field is null within the SearchNode containing the starting
-     * node in its node field).
+     * node in its node field). The weight of the edge from the predecessor's
+     * node to this node is stored in its legCost field.
      *
-     * SearchNodes are Comparable and are sorted by cost so that the lowest cost
-     * SearchNode has the highest priority within a java.util.PriorityQueue.
+     * SearchNodes are Comparable and are sorted by cost. The searches queue the
+     * node of each SearchNode in an IndexedMinHeap with the SearchNode's cost
+     * as its priority, so the lowest cost SearchNode is settled first, and a
+     * cheaper path found later decreases that priority in place.
      */
     protected class SearchNode implements Comparable<SearchNode> {
         public Node node;
         public double cost;
         public SearchNode predecessor;
+        public double legCost;
 
-        public SearchNode(Node node, double cost, SearchNode predecessor) {
+        public SearchNode(Node node, double cost, SearchNode predecessor, double legCost) {
             this.node = node;
             this.cost = cost;
             this.predecessor = predecessor;
+            this.legCost = legCost;
         }
 
         public int compareTo(SearchNode other) {
@@ -50,11 +61,48 @@ public class DijkstraGraph<NodeType, EdgeType extends Number>
         }
     }
 
+    // when true, point to point queries search from both ends of the path
+    protected boolean bidirectional;
+    // when set, point to point results are reused until the graph changes
+    protected ShortestPathCache<NodeType> cache = null;
+
     /**
      * Constructor that sets the map that the graph uses.
      */
     public DijkstraGraph() {
-        super(new PlaceholderMap<>());
+        this(false);
+    }
+
+    /**
+     * Constructor that sets the map that the graph uses, and whether point
+     * to point queries use bidirectional search.
+     *
+     * @param bidirectional true to answer shortestPathData and
+     *                      shortestPathCost with a bidirectional search
+     */
+    public DijkstraGraph(boolean bidirectional) {
+        super(new OpenAddressingMap<>());
+        this.bidirectional = bidirectional;
+    }
+
+    /**
+     * Sets the cache that shortestPathData and shortestPathCost look results
+     * up in before searching. Cached results are tagged with the graph's
+     * version, so they are not used after the graph changes.
+     *
+     * @param cache the cache to use, or null to always search
+     */
+    public void setCache(ShortestPathCache<NodeType> cache) {
+      this.cache = cache;
+    }
+
+    /**
+     * Returns the cache used by shortestPathData and shortestPathCost.
+     *
+     * @return the cache, or null when results are not cached
+     */
+    public ShortestPathCache<NodeType> getCache() {
+      return cache;
     }
 
     /**
@@ -67,42 +115,291 @@ public class DijkstraGraph<NodeType, EdgeType extends Number>
      *
      * @param start the data item in the starting node for the path
      * @param end   the data item in the destination node for the path
+     * @param token stops the search once it is cancelled or expires
      * @return SearchNode for the final end node within the shortest path
      * @throws NoSuchElementException when no path from start to end is found
      *                                or when either start or end data do not
      *                                correspond to a graph node
+     * @throws CancellationException  when the token stopped the search
+     */
+    protected SearchNode computeShortestPath(NodeType start, NodeType end,
+        CancellationToken token) {
+      Node startNode = nodes.getOrDefault(start, null);
+      Node endNode = nodes.getOrDefault(end, null);
+      if (startNode == null || endNode == null) {
+        throw new NoSuchElementException();
+      }
+
+      if (bidirectional) {
+        return computeBidirectionalShortestPath(startNode, endNode, token);
+      }
+
+      SearchNode[] reached = search(startNode, endNode, Double.POSITIVE_INFINITY, null, token);
+      // the search only stops early once the end node is settled, so any
+      // SearchNode for it at this point holds its shortest path
+      if (reached[endNode.id] == null) {
+        throw new NoSuchElementException();
+      }
+      return reached[endNode.id];
+    }
+
+    /**
+     * This helper method runs Dijkstra's algorithm from the provided start
+     * node until every node reachable from it within maxCost has been
+     * settled. Each settled node is recorded in the returned tree together
+     * with its cost and the predecessor along its shortest path. The search
+     * stops as soon as the cheapest path left in the queue costs more than
+     * maxCost, so its running time depends on the number of nodes within that
+     * budget rather than on the size of the graph.
+     *
+     * @param start   the data item in the starting node for the search
+     * @param maxCost the largest path cost to include in the tree
+     * @param token   stops the search once it is cancelled or expires
+     * @return ShortestPathTree containing every node reachable from start
+     *         with a path cost of at most maxCost
+     * @throws NoSuchElementException when start does not correspond to a
+     *                                graph node
+     * @throws CancellationException  when the token stopped the search
      */
-    protected SearchNode computeShortestPath(NodeType start, NodeType end) {
-      if (!nodes.containsKey(start) || !nodes.containsKey(end)) {
+    protected ShortestPathTree<NodeType> computeShortestPathTree(NodeType start, double maxCost,
+        CancellationToken token) {
+      Node startNode = nodes.getOrDefault(start, null);
+      if (startNode == null) {
         throw new NoSuchElementException();
       }
 
-      // Initialize priority queue and map of visited nodes
-      PriorityQueue<SearchNode> queue = new PriorityQueue<SearchNode>();
-      MapADT<NodeType,NodeType> visitedNodes = new PlaceholderMap<NodeType,NodeType>();
-      queue.add(new SearchNode(nodes.get(start), 0, null));
+      ShortestPathTree<NodeType> tree = new ShortestPathTree<>(start);
+      search(startNode, null, maxCost, tree, token);
+      return tree;
+    }
+
+    /**
+     * This helper method creates an array of SearchNodes indexed by node id.
+     * Arrays of an inner class of a generic class can only be created from
+     * its raw type, so this is the one place that does so.
+     *
+     * @param length the number of nodes
+     * @return a new array of length nulls
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    protected SearchNode[] newSearchNodes(int length) {
+      return (SearchNode[]) new DijkstraGraph.SearchNode[length];
+    }
+
+    /**
+     * This helper method runs Dijkstra's algorithm from startNode. Each node
+     * is queued at most once in an IndexedMinHeap keyed by node id, and its
+     * SearchNode is updated in place whenever a cheaper path to it is found,
+     * so the queue never holds more than one entry per node. The search stops
+     * when endNode is settled, when the cheapest queued path costs more than
+     * maxCost, or when every reachable node has been settled.
+     *
+     * @param startNode the node to start the search from
+     * @param endNode   the node to stop at, or null to keep searching
+     * @param maxCost   the largest path cost to settle
+     * @param tree      receives every settled node in the order they are
+     *                  settled, or null when no tree is needed
+     * @param token     checked every CancellationToken.CHECK_INTERVAL settled
+     *                  nodes, and stops the search once it is cancelled or
+     *                  expires
+     * @return the SearchNode of every node reached by the search indexed by
+     *         node id, or null for nodes that were never reached
+     * @throws CancellationException when the token stopped the search
+     */
+    protected SearchNode[] search(Node startNode, Node endNode, double maxCost,
+        ShortestPathTree<NodeType> tree, CancellationToken token) {
+      return search(startNode, endNode, null, 0, maxCost, tree, token);
+    }
+
+    /**
+     * Runs the same search as search(startNode, endNode, maxCost, tree,
+     * token), but also stops once every one of a set of target nodes has
+     * been settled.
+     *
+     * @param startNode   the node to start the search from
+     * @param endNode     the node to stop at, or null to keep searching
+     * @param targets     marks the target nodes by id, or null when there
+     *                    are none
+     * @param targetCount the number of marked target nodes
+     * @param maxCost     the largest path cost to settle
+     * @param tree        receives every settled node in the order they are
+     *                    settled, or null when no tree is needed
+     * @param token       stops the search once it is cancelled or expires
+     * @return the SearchNode of every node reached by the search indexed by
+     *         node id, or null for nodes that were never reached
+     * @throws CancellationException when the token stopped the search
+     */
+    protected SearchNode[] search(Node startNode, Node endNode, boolean[] targets,
+        int targetCount, double maxCost, ShortestPathTree<NodeType> tree,
+        CancellationToken token) {
+      SearchNode[] reached = newSearchNodes(nodeList.size());
+      IndexedMinHeap queue = new IndexedMinHeap(nodeList.size());
+      reached[startNode.id] = new SearchNode(startNode, 0, null, 0);
+      queue.insertOrDecrease(startNode.id, 0);
+      int settled = 0;
 
-      // Removes SearchNodes from queue
       while (!queue.isEmpty()) {
-        SearchNode shortestPath = queue.remove();
-        // if (shortestPath.predecessor != null) {
-        //   System.out.println("Node: "+shortestPath.node.data+" Cost: "+shortestPath.cost+" Predecessor: "+shortestPath.predecessor.node.data);
-        // }
-        if (shortestPath.node.equals(nodes.get(end))) {
-          return shortestPath;
+        // every path left in the queue is at least this expensive
+        if (queue.peekKey() > maxCost) {
+          break;
+        }
+        SearchNode shortestPath = reached[queue.removeMin()];
+        token.check(++settled);
+        if (tree != null) {
+          tree.add(shortestPath.node.data, shortestPath.cost,
+              shortestPath.predecessor == null ? null : shortestPath.predecessor.node.data,
+              shortestPath.legCost);
+        }
+        if (shortestPath.node == endNode
+            || targets != null && targets[shortestPath.node.id] && --targetCount == 0) {
+          break;
+        }
+
+        for (Edge edge: shortestPath.node.edgesLeaving) {
+          int next = edge.successor.id;
+          double cost = shortestPath.cost + edge.data.doubleValue();
+          if (reached[next] == null) {
+            reached[next] = new SearchNode(edge.successor, cost, shortestPath,
+                edge.data.doubleValue());
+          } else if (cost < reached[next].cost && queue.contains(next)) {
+            // settled nodes are never in the queue, so their paths stay final
+            reached[next].cost = cost;
+            reached[next].predecessor = shortestPath;
+            reached[next].legCost = edge.data.doubleValue();
+          } else {
+            continue;
+          }
+          queue.insertOrDecrease(next, cost);
         }
+      }
+      return reached;
+    }
 
-        // Adds new branching out paths to queue
-        if (!visitedNodes.containsKey(shortestPath.node.data)) {
-          visitedNodes.put(shortestPath.node.data, shortestPath.node.data);
-          for (Edge edge: shortestPath.node.edgesLeaving) {
-            if (!visitedNodes.containsKey(edge.successor.data)) {
-              queue.add(new SearchNode(edge.successor, shortestPath.cost + edge.data.doubleValue(), shortestPath));
+    /**
+     * This helper method computes the shortest path from startNode to endNode
+     * by growing a forward search from startNode along edgesLeaving and a
+     * backward search from endNode along edgesEntering. The side whose
+     * cheapest queued path is cheaper is expanded next. Whenever an edge
+     * links a node reached by one search to a node reached by the other, the
+     * combined path is a candidate for the shortest path. The searches stop
+     * once the cheapest queued paths of both sides add up to at least the
+     * best candidate, since no path through an unsettled node can be cheaper.
+     *
+     * @param startNode the node the path starts at
+     * @param endNode   the node the path ends at
+     * @param token     stops the searches once it is cancelled or expires
+     * @return SearchNode for endNode, linked through predecessors to startNode
+     * @throws NoSuchElementException when no path from startNode to endNode
+     *                                is found
+     * @throws CancellationException  when the token stopped the search
+     */
+    protected SearchNode computeBidirectionalShortestPath(Node startNode, Node endNode,
+        CancellationToken token) {
+      int nodeCount = nodeList.size();
+      // in the backward search, the predecessor of a SearchNode is the next
+      // node along the path towards endNode
+      SearchNode[] forward = newSearchNodes(nodeCount);
+      SearchNode[] backward = newSearchNodes(nodeCount);
+      IndexedMinHeap forwardQueue = new IndexedMinHeap(nodeCount);
+      IndexedMinHeap backwardQueue = new IndexedMinHeap(nodeCount);
+      forward[startNode.id] = new SearchNode(startNode, 0, null, 0);
+      backward[endNode.id] = new SearchNode(endNode, 0, null, 0);
+      forwardQueue.insertOrDecrease(startNode.id, 0);
+      backwardQueue.insertOrDecrease(endNode.id, 0);
+
+      // the best path found so far runs forward to meetBefore, crosses one
+      // edge, and runs backward from meetAfter
+      double bestCost = Double.POSITIVE_INFINITY;
+      Node meetBefore = null;
+      Node meetAfter = null;
+      if (startNode == endNode) {
+        bestCost = 0;
+        meetBefore = startNode;
+        meetAfter = startNode;
+      }
+      int settled = 0;
+
+      while (!forwardQueue.isEmpty() && !backwardQueue.isEmpty()
+          && forwardQueue.peekKey() + backwardQueue.peekKey() < bestCost) {
+        token.check(++settled);
+        if (forwardQueue.peekKey() <= backwardQueue.peekKey()) {
+          SearchNode current = forward[forwardQueue.removeMin()];
+          for (Edge edge : current.node.edgesLeaving) {
+            double cost = current.cost + edge.data.doubleValue();
+            relax(forward, forwardQueue, edge, edge.successor, cost, current);
+            SearchNode other = backward[edge.successor.id];
+            if (other != null && cost + other.cost < bestCost) {
+              bestCost = cost + other.cost;
+              meetBefore = current.node;
+              meetAfter = edge.successor;
+            }
+          }
+        } else {
+          SearchNode current = backward[backwardQueue.removeMin()];
+          for (Edge edge : current.node.edgesEntering) {
+            double cost = current.cost + edge.data.doubleValue();
+            relax(backward, backwardQueue, edge, edge.predecessor, cost, current);
+            SearchNode other = forward[edge.predecessor.id];
+            if (other != null && cost + other.cost < bestCost) {
+              bestCost = cost + other.cost;
+              meetBefore = edge.predecessor;
+              meetAfter = current.node;
             }
           }
         }
       }
-      throw new NoSuchElementException();
+      if (meetBefore == null) {
+        throw new NoSuchElementException();
+      }
+
+      // collect the nodes along the path in order from startNode to endNode
+      LinkedList<Node> path = new LinkedList<>();
+      for (SearchNode node = forward[meetBefore.id]; node != null; node = node.predecessor) {
+        path.addFirst(node.node);
+      }
+      SearchNode after = backward[meetAfter.id];
+      if (meetAfter == meetBefore) {
+        after = after.predecessor;
+      }
+      for (; after != null; after = after.predecessor) {
+        path.addLast(after.node);
+      }
+      // rebuild the SearchNodes from the start, so that costs are summed in
+      // the same order as in a forward search
+      SearchNode result = null;
+      for (Node node : path) {
+        double legCost = result == null ? 0
+            : getEdgeHelper(result.node.data, node.data).data.doubleValue();
+        result = new SearchNode(node, result == null ? 0 : result.cost + legCost, result, legCost);
+      }
+      return result;
+    }
+
+    /**
+     * Records a path of the provided cost to node in one direction of a
+     * bidirectional search, when that path is cheaper than any known before
+     * and node has not been settled in that direction.
+     *
+     * @param reached     the SearchNodes of this direction indexed by node id
+     * @param queue       the queue of this direction
+     * @param edge        the edge that extends the path to node
+     * @param node        the node reached by the new path
+     * @param cost        the cost of the new path
+     * @param predecessor the SearchNode the new path extends
+     */
+    private void relax(SearchNode[] reached, IndexedMinHeap queue, Edge edge, Node node,
+        double cost, SearchNode predecessor) {
+      SearchNode existing = reached[node.id];
+      if (existing == null) {
+        reached[node.id] = new SearchNode(node, cost, predecessor, edge.data.doubleValue());
+      } else if (cost < existing.cost && queue.contains(node.id)) {
+        existing.cost = cost;
+        existing.predecessor = predecessor;
+        existing.legCost = edge.data.doubleValue();
+      } else {
+        return;
+      }
+      queue.insertOrDecrease(node.id, cost);
     }
 
     /**
@@ -118,9 +415,12 @@ public class DijkstraGraph<NodeType, EdgeType extends Number>
      * @return list of data item from node along this shortest path
      */
     public List<NodeType> shortestPathData(NodeType start, NodeType end) {
+      if (cache != null) {
+        return new LinkedList<NodeType>(shortestPathResult(start, end).getNodes());
+      }
       try {
         LinkedList<NodeType> path = new LinkedList<NodeType>();
-        SearchNode node = computeShortestPath(start, end);
+        SearchNode node = computeShortestPath(start, end, CancellationToken.NONE);
         while (node != null) {
           path.addFirst(node.node.data);
           node = node.predecessor;
@@ -142,10 +442,177 @@ public class DijkstraGraph<NodeType, EdgeType extends Number>
      * @return the cost of the shortest path between these nodes
      */
     public double shortestPathCost(NodeType start, NodeType end) {
-      SearchNode node = computeShortestPath(start, end);
+      if (cache != null) {
+        PathResult<NodeType> result = shortestPathResult(start, end);
+        if (result.isEmpty()) {
+          throw new NoSuchElementException();
+        }
+        return result.getTotalCost();
+      }
+      SearchNode node = computeShortestPath(start, end, CancellationToken.NONE);
       return node.cost;
     }
-    
+
+    /**
+     * Returns the nodes along the shortest path from the node with the
+     * provided start value to the node with the provided end value, together
+     * with the weight of every edge on it and the cost of the path up to each
+     * node. All of these are read from the SearchNodes of a single search,
+     * or from the cache when one is set and the graph has not changed.
+     *
+     * @param start the data item in the starting node for the path
+     * @param end   the data item in the destination node for the path
+     * @return PathResult of the shortest path, which is empty if there is no
+     *         such path
+     */
+    public PathResult<NodeType> shortestPathResult(NodeType start, NodeType end) {
+      return shortestPathResult(start, end, CancellationToken.NONE);
+    }
+
+    /**
+     * Returns the same result as shortestPathResult(start, end), but stops
+     * searching once the provided token is cancelled or expires. A search
+     * that is stopped leaves nothing in the cache.
+     *
+     * @param start the data item in the starting node for the path
+     * @param end   the data item in the destination node for the path
+     * @param token stops the search once it is cancelled or expires
+     * @return PathResult of the shortest path, which is empty if there is no
+     *         such path
+     * @throws CancellationException when the token stopped the search
+     */
+    @Override
+    public PathResult<NodeType> shortestPathResult(NodeType start, NodeType end,
+        CancellationToken token) {
+      PathResult<NodeType> result = cache == null ? null : cache.get(start, end, version);
+      if (result == null) {
+        try {
+          result = toPathResult(computeShortestPath(start, end, token));
+        } catch (NoSuchElementException e) {
+          result = PathResult.empty();
+        }
+        if (cache != null) {
+          // pairs without a path are cached too, so they are not searched again
+          cache.put(start, end, version, result);
+        }
+      }
+      return result;
+    }
+
+    /**
+     * This helper method follows the predecessor references from the
+     * SearchNode at the end of a path back to its start, collecting the nodes,
+     * leg costs and cumulative costs along the way.
+     *
+     * @param end the SearchNode for the final node of the path
+     * @return PathResult of the path that ends at this SearchNode
+     */
+    protected PathResult<NodeType> toPathResult(SearchNode end) {
+      LinkedList<NodeType> nodes = new LinkedList<>();
+      LinkedList<Double> legCosts = new LinkedList<>();
+      LinkedList<Double> cumulativeCosts = new LinkedList<>();
+      for (SearchNode node = end; node != null; node = node.predecessor) {
+        nodes.addFirst(node.node.data);
+        cumulativeCosts.addFirst(node.cost);
+        if (node.predecessor != null) {
+          legCosts.addFirst(node.legCost);
+        }
+      }
+      return new PathResult<>(nodes, legCosts, cumulativeCosts);
+    }
+
+    /**
+     * Returns the shortest paths from the node with the provided start value
+     * to every node reachable from it, computed with a single run of
+     * Dijkstra's shortest path algorithm.
+     *
+     * @param start the data item in the starting node for the paths
+     * @return ShortestPathTree with the cost and predecessor of every
+     *         reachable node
+     * @throws NoSuchElementException when start does not correspond to a
+     *                                graph node
+     */
+    public ShortestPathTree<NodeType> shortestPathTree(NodeType start) {
+      return computeShortestPathTree(start, Double.POSITIVE_INFINITY, CancellationToken.NONE);
+    }
+
+    /**
+     * Returns the shortest paths from the node with the provided start value
+     * to every node that can be reached from it with a path cost of at most
+     * maxCost. The search stops once all such nodes are found instead of
+     * exploring everything reachable from start.
+     *
+     * @param start   the data item in the starting node for the paths
+     * @param maxCost the largest path cost to include in the tree
+     * @return ShortestPathTree with the cost and predecessor of every node
+     *         within maxCost of start
+     * @throws NoSuchElementException   when start does not correspond to a
+     *                                  graph node
+     * @throws IllegalArgumentException when maxCost is negative or NaN
+     */
+    public ShortestPathTree<NodeType> shortestPathTree(NodeType start, double maxCost) {
+      ShortestPathTree.checkMaxCost(maxCost);
+      return computeShortestPathTree(start, maxCost, CancellationToken.NONE);
+    }
+
+    /**
+     * Returns the same tree as shortestPathTree(start, maxCost), but stops
+     * searching once the provided token is cancelled or expires.
+     *
+     * @param start   the data item in the starting node for the paths
+     * @param maxCost the largest path cost to include in the tree
+     * @param token   stops the search once it is cancelled or expires
+     * @return ShortestPathTree with the cost and predecessor of every node
+     *         within maxCost of start
+     * @throws IllegalArgumentException when maxCost is negative or NaN
+     * @throws CancellationException    when the token stopped the search
+     */
+    @Override
+    public ShortestPathTree<NodeType> shortestPathTree(NodeType start, double maxCost,
+        CancellationToken token) {
+      ShortestPathTree.checkMaxCost(maxCost);
+      return computeShortestPathTree(start, maxCost, token);
+    }
+
+    /**
+     * Returns the shortest paths from the node with the provided start value
+     * to each of the provided targets that can be reached from it. The
+     * search stops once every target is settled, so it only explores the
+     * nodes that are no farther from start than its farthest target.
+     *
+     * @param start   the data item in the starting node for the paths
+     * @param targets the data items in the nodes whose paths are needed
+     * @param token   stops the search once it is cancelled or expires
+     * @return ShortestPathTree with the cost and predecessor of every
+     *         reachable target and of every node settled before it
+     * @throws NoSuchElementException when start does not correspond to a
+     *                                graph node
+     * @throws CancellationException  when the token stopped the search
+     */
+    @Override
+    public ShortestPathTree<NodeType> shortestPathTree(NodeType start,
+        Collection<NodeType> targets, CancellationToken token) {
+      Node startNode = nodes.getOrDefault(start, null);
+      if (startNode == null) {
+        throw new NoSuchElementException();
+      }
+      // start counts as a target, so a search for no targets in this graph
+      // stops right away
+      boolean[] isTarget = new boolean[nodeList.size()];
+      isTarget[startNode.id] = true;
+      int targetCount = 1;
+      for (NodeType target : targets) {
+        Node targetNode = nodes.getOrDefault(target, null);
+        if (targetNode != null && !isTarget[targetNode.id]) {
+          isTarget[targetNode.id] = true;
+          targetCount++;
+        }
+      }
+      ShortestPathTree<NodeType> tree = new ShortestPathTree<>(start);
+      search(startNode, null, isTarget, targetCount, Double.POSITIVE_INFINITY, tree, token);
+      return tree;
+    }
+
     /**
      * Checks shortestPath methods when using the graph from lecture and finding a path between nodes A and E
      */
@@ -265,4 +732,701 @@ public class DijkstraGraph<NodeType, EdgeType extends Number>
         Assertions.fail();
       }
     }
+
+    /**
+     * Checks that a single shortestPathTree search from A agrees with the point to point methods
+     * for every destination, and that unreachable nodes are left out of the tree
+     */
+    @Test
+    public void testShortestPathTree() {
+      DijkstraGraph<String,Integer> graph = new DijkstraGraph<>();
+      graph.insertNode("A");
+      graph.insertNode("B");
+      graph.insertNode("C");
+      graph.insertNode("D");
+      graph.insertNode("E");
+      graph.insertNode("F");
+      graph.insertNode("G");
+      graph.insertNode("H");
+      graph.insertEdge("A","B",4);
+      graph.insertEdge("A","E",15);
+      graph.insertEdge("A","C",2);
+      graph.insertEdge("B","D",1);
+      graph.insertEdge("B","E",10);
+      graph.insertEdge("C","D",5);
+      graph.insertEdge("D","E",3);
+      graph.insertEdge("D","F",0);
+      graph.insertEdge("F","D",2);
+      graph.insertEdge("F","H",4);
+      graph.insertEdge("G","H",4);
+
+      ShortestPathTree<String> tree = graph.shortestPathTree("A");
+      if (tree.size() != 7 || tree.contains("G")) {
+        Assertions.fail();
+      }
+      for (String end : tree.getReachedNodes()) {
+        if (!graph.shortestPathData("A", end).equals(tree.getPathTo(end))
+            || graph.shortestPathCost("A", end) != tree.getCost(end)) {
+          Assertions.fail();
+        }
+      }
+      if (!Arrays.asList(new Double[] {4.0, 1.0, 3.0}).equals(tree.getLegCostsTo("E"))) {
+        Assertions.fail();
+      }
+    }
+
+    /**
+     * Checks that a cost-bounded tree holds exactly the nodes whose shortest
+     * path costs at most maxCost, including nodes right at the budget, and
+     * that budgets that cannot stop a search are rejected
+     */
+    @Test
+    public void testCostBoundedTree() {
+      DijkstraGraph<String,Integer> graph = new DijkstraGraph<>();
+      for (String node : new String[] {"A", "B", "C", "D", "E", "F", "G", "H"}) {
+        graph.insertNode(node);
+      }
+      graph.insertEdge("A","B",4);
+      graph.insertEdge("A","E",15);
+      graph.insertEdge("A","C",2);
+      graph.insertEdge("B","D",1);
+      graph.insertEdge("B","E",10);
+      graph.insertEdge("C","D",5);
+      graph.insertEdge("D","E",3);
+      graph.insertEdge("D","F",0);
+      graph.insertEdge("F","D",2);
+      graph.insertEdge("F","H",4);
+      graph.insertEdge("G","H",4);
+
+      // the costs from A are A 0, C 2, B 4, D 5, F 5, E 8 and H 9
+      List<List<String>> expected = Arrays.asList(Arrays.asList("A"),
+          Arrays.asList("A", "C", "B"), Arrays.asList("A", "C", "B", "D", "F"),
+          Arrays.asList("A", "C", "B", "D", "F", "E", "H"));
+      double[] budgets = {0, 4.99, 5, 1000};
+      List<ShortestPathADT<String>> engines = Arrays.asList(graph, graph.freeze());
+      for (int i = 0; i < budgets.length; i++) {
+        for (ShortestPathADT<String> engine : engines) {
+          ShortestPathTree<String> tree = engine.shortestPathTree("A", budgets[i]);
+          if (tree.size() != expected.get(i).size()
+              || !tree.getReachedNodes().containsAll(expected.get(i))) {
+            Assertions.fail();
+          }
+        }
+      }
+
+      for (ShortestPathADT<String> engine : engines) {
+        // an infinite budget does not limit the search
+        if (engine.shortestPathTree("A", Double.POSITIVE_INFINITY).size() != 7) {
+          Assertions.fail();
+        }
+        for (double budget : new double[] {-1, Double.NaN}) {
+          try {
+            engine.shortestPathTree("A", budget);
+            Assertions.fail();
+          } catch (IllegalArgumentException e) {
+            // only budgets of at least 0 limit a search
+          }
+        }
+      }
+    }
+
+    /**
+     * Checks that a CSRGraph snapshot answers the same shortest path queries as the graph it was
+     * frozen from, including after a node has been removed from the original graph
+     */
+    @Test
+    public void testFreeze() {
+      DijkstraGraph<String,Integer> graph = new DijkstraGraph<>();
+      graph.insertNode("A");
+      graph.insertNode("B");
+      graph.insertNode("C");
+      graph.insertNode("D");
+      graph.insertNode("E");
+      graph.insertNode("F");
+      graph.insertNode("G");
+      graph.insertNode("H");
+      graph.insertEdge("A","B",4);
+      graph.insertEdge("A","E",15);
+      graph.insertEdge("A","C",2);
+      graph.insertEdge("B","D",1);
+      graph.insertEdge("B","E",10);
+      graph.insertEdge("C","D",5);
+      graph.insertEdge("D","E",3);
+      graph.insertEdge("D","F",0);
+      graph.insertEdge("F","D",2);
+      graph.insertEdge("F","H",4);
+      graph.insertEdge("G","H",4);
+      graph.removeNode("C");
+
+      CSRGraph<String> snapshot = graph.freeze();
+      if (snapshot.getNodeCount() != 7 || snapshot.containsNode("C")) {
+        Assertions.fail();
+      }
+      if (!graph.shortestPathData("A", "E").equals(snapshot.shortestPathData("A", "E"))
+          || snapshot.shortestPathCost("A", "H") != graph.shortestPathCost("A", "H")
+          || snapshot.getEdge("D", "F") != 0.0
+          || !snapshot.shortestPathData("A", "G").isEmpty()) {
+        Assertions.fail();
+      }
+    }
+
+    /**
+     * Checks that bidirectional search finds the same paths and costs as the regular search on the
+     * graph from lecture, and still reports when no path exists
+     */
+    @Test
+    public void testBidirectional() {
+      DijkstraGraph<String,Integer> graph = new DijkstraGraph<>(true);
+      graph.insertNode("A");
+      graph.insertNode("B");
+      graph.insertNode("C");
+      graph.insertNode("D");
+      graph.insertNode("E");
+      graph.insertNode("F");
+      graph.insertNode("G");
+      graph.insertNode("H");
+      graph.insertEdge("A","B",4);
+      graph.insertEdge("A","E",15);
+      graph.insertEdge("A","C",2);
+      graph.insertEdge("B","D",1);
+      graph.insertEdge("B","E",10);
+      graph.insertEdge("C","D",5);
+      graph.insertEdge("D","E",3);
+      graph.insertEdge("D","F",0);
+      graph.insertEdge("F","D",2);
+      graph.insertEdge("F","H",4);
+      graph.insertEdge("G","H",4);
+
+      if (!Arrays.asList(new String[] {"A", "B", "D", "E"}).equals(graph.shortestPathData("A", "E"))
+          || graph.shortestPathCost("A", "E") != 8
+          || !Arrays.asList(new String[] {"C", "D", "F", "H"}).equals(graph.shortestPathData("C", "H"))
+          || graph.shortestPathCost("C", "H") != 9
+          || !Arrays.asList(new String[] {"B"}).equals(graph.shortestPathData("B", "B"))
+          || !graph.shortestPathData("A", "G").isEmpty()) {
+        Assertions.fail();
+      }
+      try {
+        graph.shortestPathCost("H", "A");
+        Assertions.fail();
+      } catch (NoSuchElementException error) {
+      }
+    }
+    /**
+     * Inserts count nodes named N0 to N(count - 1) into graph, and random
+     * edges with whole number weights from 0 to 99 between them, so that
+     * some pairs are connected by several equally short paths and others are
+     * not connected at all
+     */
+    private static void insertRandomGraph(DijkstraGraph<String,Double> graph, int count,
+        int edges, long seed) {
+      Random random = new Random(seed);
+      for (int i = 0; i < count; i++) {
+        graph.insertNode("N" + i);
+      }
+      for (int i = 0; i < edges; i++) {
+        graph.insertEdge("N" + random.nextInt(count), "N" + random.nextInt(count),
+            (double) random.nextInt(100));
+      }
+    }
+
+    /**
+     * Fails unless engine finds a path between the same pairs of the first
+     * count nodes of a random graph as a plain search of graph does, each
+     * with the same cost, and each made of edges of graph whose weights are
+     * its leg costs
+     */
+    private static void checkSameShortestPaths(ShortestPathADT<String> engine,
+        DijkstraGraph<String,Double> graph, int count) {
+      for (int s = 0; s < count; s++) {
+        for (int t = 0; t < count; t++) {
+          PathResult<String> expected = graph.shortestPathResult("N" + s, "N" + t);
+          PathResult<String> actual = engine.shortestPathResult("N" + s, "N" + t);
+          if (expected.isEmpty() != actual.isEmpty()) {
+            Assertions.fail();
+          }
+          if (expected.isEmpty()) {
+            continue;
+          }
+          List<String> path = actual.getNodes();
+          if (actual.getTotalCost() != expected.getTotalCost()
+              || engine.shortestPathCost("N" + s, "N" + t) != expected.getTotalCost()
+              || !path.get(0).equals("N" + s) || !path.get(path.size() - 1).equals("N" + t)) {
+            Assertions.fail();
+          }
+          for (int i = 0; i + 1 < path.size(); i++) {
+            if (graph.getEdge(path.get(i), path.get(i + 1)).doubleValue()
+                != actual.getLegCosts().get(i)) {
+              Assertions.fail();
+            }
+          }
+        }
+      }
+    }
+
+    /**
+     * Checks that ALT search finds shortest paths of the same cost as
+     * Dijkstra's algorithm for every pair of a random graph, and that changes
+     * to the graph after its landmarks were computed, including bulk inserts,
+     * make them recomputed
+     */
+    @Test
+    public void testALTGraph() {
+      ALTGraph<String,Double> alt = new ALTGraph<>(3);
+      DijkstraGraph<String,Double> graph = new DijkstraGraph<>();
+      insertRandomGraph(alt, 60, 150, 6);
+      insertRandomGraph(graph, 60, 150, 6);
+      checkSameShortestPaths(alt, graph, 60);
+
+      // a free shortcut makes the stored bounds overestimate
+      alt.insertEdge("N0", "N59", 0.0);
+      graph.insertEdge("N0", "N59", 0.0);
+      if (alt.landmarks != null) {
+        Assertions.fail();
+      }
+      checkSameShortestPaths(alt, graph, 60);
+      alt.preprocessLandmarks();
+      alt.removeEdge("N0", "N59");
+      graph.removeEdge("N0", "N59");
+      if (alt.landmarks != null) {
+        Assertions.fail();
+      }
+      checkSameShortestPaths(alt, graph, 60);
+
+      // a bulk insert that only lowers the weight of existing edges
+      alt.preprocessLandmarks();
+      List<String> preds = new LinkedList<>();
+      List<String> succs = new LinkedList<>();
+      List<Double> weights = new LinkedList<>();
+      for (int s = 0; s < 3; s++) {
+        for (int t = 0; t < 60; t++) {
+          if (alt.containsEdge("N" + s, "N" + t)) {
+            preds.add("N" + s);
+            succs.add("N" + t);
+            weights.add(0.0);
+          }
+        }
+      }
+      alt.insertEdges(preds, succs, weights);
+      graph.insertEdges(preds, succs, weights);
+      if (alt.landmarks != null || alt.getNodeCount() != 60) {
+        Assertions.fail();
+      }
+      checkSameShortestPaths(alt, graph, 60);
+
+      // a bulk insert that adds nodes still changes the version only once
+      long version = graph.getVersion();
+      graph.insertEdges(Arrays.asList("N0", "X1"), Arrays.asList("X1", "X2"),
+          Arrays.asList(1.0, 2.0));
+      if (graph.getVersion() != version + 1 || graph.getNodeCount() != 62
+          || graph.shortestPathCost("N0", "X2") != 3.0) {
+        Assertions.fail();
+      }
+    }
+
+    /**
+     * Checks that saved landmarks answer the same queries once loaded into a
+     * graph with the same edges, and are rejected by a graph whose edges
+     * have changed since they were saved
+     */
+    @Test
+    public void testALTLandmarkFile() throws IOException {
+      ALTGraph<String,Double> alt = new ALTGraph<>(3);
+      insertRandomGraph(alt, 60, 150, 7);
+      File file = File.createTempFile("landmarks", ".bin");
+      file.deleteOnExit();
+      alt.saveLandmarks(file.getPath());
+
+      ALTGraph<String,Double> copy = new ALTGraph<>(3);
+      insertRandomGraph(copy, 60, 150, 7);
+      copy.loadLandmarks(file.getPath());
+      if (copy.landmarks == null) {
+        Assertions.fail();
+      }
+      checkSameShortestPaths(copy, alt, 60);
+
+      // whole number weights make sure this changes an edge
+      copy.insertEdge("N0", "N1", 0.5);
+      try {
+        copy.loadLandmarks(file.getPath());
+        Assertions.fail();
+      } catch (IOException e) {
+        // the landmarks no longer match the edges
+      }
+    }
+
+    /**
+     * Checks that a contraction hierarchy unpacks its shortcuts into shortest
+     * paths of the same cost as Dijkstra's algorithm for every pair of a
+     * random graph, and reports pairs without a path the same way
+     */
+    @Test
+    public void testContractionHierarchy() {
+      DijkstraGraph<String,Double> graph = new DijkstraGraph<>();
+      insertRandomGraph(graph, 60, 150, 8);
+      graph.insertNode("island");
+      ContractionHierarchy<String> hierarchy = new ContractionHierarchy<>(graph.freeze());
+      checkSameShortestPaths(hierarchy, graph, 60);
+
+      if (!hierarchy.shortestPathResult("N0", "island").isEmpty()
+          || !hierarchy.shortestPathData("island", "N0").isEmpty()) {
+        Assertions.fail();
+      }
+      try {
+        hierarchy.shortestPathCost("N0", "island");
+        Assertions.fail();
+      } catch (NoSuchElementException e) {
+        // there is no path to an isolated node
+      }
+      // a query after a failed one must not see the costs that query left
+      checkSameShortestPaths(hierarchy, graph, 60);
+    }
+
+    /**
+     * Checks that a distance matrix answers the same queries as Dijkstra's
+     * algorithm after it is saved and loaded again, and that loading it for
+     * a graph whose edge weights have changed since it was saved fails
+     */
+    @Test
+    public void testDistanceMatrixFile() throws IOException {
+      DijkstraGraph<String,Double> graph = new DijkstraGraph<>();
+      insertRandomGraph(graph, 60, 150, 9);
+      DistanceMatrix<String> matrix = new DistanceMatrix<>(graph.freeze());
+      checkSameShortestPaths(matrix, graph, 60);
+      File file = File.createTempFile("matrix", ".bin");
+      file.deleteOnExit();
+      matrix.save(file.getPath());
+      checkSameShortestPaths(DistanceMatrix.load(file.getPath(), graph.freeze()), graph, 60);
+
+      DijkstraGraph<String,Double> small = new DijkstraGraph<>();
+      small.insertNode("A");
+      small.insertNode("B");
+      small.insertNode("C");
+      small.insertEdge("A", "B", 1.0);
+      small.insertEdge("B", "C", 1.0);
+      small.insertEdge("A", "C", 5.0);
+      new DistanceMatrix<>(small.freeze()).save(file.getPath());
+      if (DistanceMatrix.load(file.getPath(), small.freeze()).shortestPathCost("A", "C") != 2.0) {
+        Assertions.fail();
+      }
+      // the same nodes with a different weight must not reuse the old costs
+      small.insertEdge("B", "C", 100.0);
+      try {
+        DistanceMatrix.load(file.getPath(), small.freeze());
+        Assertions.fail();
+      } catch (IOException e) {
+        // the file was saved for the old edge weights
+      }
+    }
+
+    /**
+     * Checks that a graph written to a graph file and mapped back answers the
+     * same queries as the graph it was written from, and that files which
+     * are not complete graph files are recognized and rejected
+     */
+    @Test
+    public void testMappedCSRGraph() throws IOException {
+      DijkstraGraph<String,Double> graph = new DijkstraGraph<>();
+      insertRandomGraph(graph, 60, 150, 10);
+      File file = File.createTempFile("graph", ".csr");
+      file.deleteOnExit();
+      MappedCSRGraph.write(graph, file.getPath());
+      if (!MappedCSRGraph.isGraphFile(file.getPath())) {
+        Assertions.fail();
+      }
+      MappedCSRGraph mapped = MappedCSRGraph.load(file.getPath());
+      if (mapped.getNodeCount() != 60 || mapped.getEdgeCount() != graph.getEdgeCount()
+          || !mapped.containsNode("N42") || mapped.containsNode("N60")
+          || !mapped.getData(mapped.getId("N42")).equals("N42")) {
+        Assertions.fail();
+      }
+      checkSameShortestPaths(mapped, graph, 60);
+
+      // a DOT file, a file shorter than the header and a cut off graph file
+      File other = File.createTempFile("other", ".dot");
+      other.deleteOnExit();
+      Files.write(other.toPath(), "digraph G {\n}\n".getBytes(StandardCharsets.UTF_8));
+      if (MappedCSRGraph.isGraphFile(other.getPath())) {
+        Assertions.fail();
+      }
+      Files.write(other.toPath(), Arrays.copyOf(Files.readAllBytes(file.toPath()), 6));
+      if (MappedCSRGraph.isGraphFile(other.getPath())) {
+        Assertions.fail();
+      }
+      try (RandomAccessFile cut = new RandomAccessFile(file, "rw")) {
+        cut.setLength(cut.length() - 1);
+      }
+      for (File corrupt : List.of(other, file)) {
+        try {
+          MappedCSRGraph.load(corrupt.getPath());
+          Assertions.fail();
+        } catch (IOException e) {
+          // the sizes in the header do not match the file
+        }
+      }
+    }
+
+    /**
+     * Checks that a tree search for a few targets finds the same paths to
+     * them as a search of the whole graph, ignores targets that are not in
+     * the graph, and stops before settling nodes beyond its farthest target
+     */
+    @Test
+    public void testTargetedTree() {
+      DijkstraGraph<String,Double> graph = new DijkstraGraph<>();
+      insertRandomGraph(graph, 60, 300, 12);
+      List<String> targets = List.of("N5", "N17", "N40", "N17", "missing");
+      List<ShortestPathADT<String>> engines = Arrays.asList(graph, graph.freeze());
+      for (ShortestPathADT<String> engine : engines) {
+        ShortestPathTree<String> full = engine.shortestPathTree("N0");
+        ShortestPathTree<String> tree = engine.shortestPathTree("N0", targets,
+            CancellationToken.NONE);
+        for (String target : targets) {
+          if (tree.contains(target) != full.contains(target)
+              || full.contains(target) && tree.getCost(target) != full.getCost(target)) {
+            Assertions.fail();
+          }
+        }
+        // the nearest other node is settled right after the start
+        String nearest = full.getReachedNodes().get(1);
+        if (tree.size() > full.size() || engine.shortestPathTree("N0", List.of(nearest),
+            CancellationToken.NONE).size() != 2) {
+          Assertions.fail();
+        }
+      }
+    }
+
+    /**
+     * Checks that cached results are reused until the graph changes, and that
+     * the cache evicts its least recently used result when it is full
+     */
+    @Test
+    public void testCache() {
+      DijkstraGraph<String, Integer> graph = new DijkstraGraph<>();
+      ShortestPathCache<String> cache = new ShortestPathCache<>(2);
+      graph.setCache(cache);
+      graph.insertNode("A");
+      graph.insertNode("B");
+      graph.insertNode("C");
+      graph.insertEdge("A","B",1);
+      graph.insertEdge("B","C",1);
+      graph.insertEdge("A","C",5);
+
+      if (graph.shortestPathCost("A", "C") != 2
+          || !Arrays.asList(new String[] {"A", "B", "C"}).equals(graph.shortestPathData("A", "C"))
+          || cache.getHits() != 1 || cache.getMisses() != 1) {
+        Assertions.fail();
+      }
+      // the cached path must not be served once the graph changes
+      graph.removeEdge("B", "C");
+      if (graph.shortestPathCost("A", "C") != 5 || cache.getMisses() != 2) {
+        Assertions.fail();
+      }
+      // with a capacity of two, looking up a third pair evicts B to C
+      graph.shortestPathData("B", "C");
+      graph.shortestPathCost("A", "C");
+      graph.shortestPathData("C", "A");
+      if (cache.getEvictions() != 1 || cache.getSize() != 2 || cache.getHits() != 2) {
+        Assertions.fail();
+      }
+      graph.shortestPathData("B", "C");
+      if (cache.getMisses() != 5) {
+        Assertions.fail();
+      }
+    }
+
+    /**
+     * Checks that edges are found, updated and removed through the successor
+     * index, and that removing a node also removes and uncounts its edges
+     */
+    @Test
+    public void testEdgeIndex() {
+      DijkstraGraph<String, Integer> graph = new DijkstraGraph<>();
+      graph.insertNode("A");
+      graph.insertNode("B");
+      graph.insertNode("C");
+      graph.insertEdge("A","B",1);
+      graph.insertEdge("B","A",2);
+      graph.insertEdge("A","C",3);
+      graph.insertEdge("C","C",4);
+      graph.insertEdge("A","B",5);
+
+      if (graph.getEdgeCount() != 4 || graph.getEdge("A", "B") != 5
+          || !graph.containsEdge("C", "C") || graph.containsEdge("B", "C")
+          || graph.containsEdge("A", "D") || graph.insertEdge("A", "D", 1)
+          || graph.removeEdge("C", "A")) {
+        Assertions.fail();
+      }
+      graph.removeNode("C");
+      if (graph.getEdgeCount() != 2 || graph.containsEdge("A", "C")) {
+        Assertions.fail();
+      }
+      graph.removeNode("A");
+      if (graph.getEdgeCount() != 0 || graph.shortestPathTree("B").size() != 1) {
+        Assertions.fail();
+      }
+    }
+
+    /**
+     * Checks that after many edges and nodes are removed, every remaining
+     * edge is still found at its recorded position in both of its nodes'
+     * edge lists, and that searches give the same costs as a graph built
+     * from only the remaining edges
+     */
+    @Test
+    public void testEdgeRemoval() {
+      DijkstraGraph<String,Double> graph = new DijkstraGraph<>();
+      insertRandomGraph(graph, 60, 400, 11);
+      Random random = new Random(11);
+      for (int i = 0; i < 300; i++) {
+        graph.removeEdge("N" + random.nextInt(60), "N" + random.nextInt(60));
+      }
+      for (int i = 0; i < 5; i++) {
+        graph.removeNode("N" + random.nextInt(60));
+      }
+
+      DijkstraGraph<String,Double> rebuilt = new DijkstraGraph<>();
+      for (BaseGraph<String,Double>.Node node : graph.nodeList) {
+        rebuilt.insertNode(node.data);
+      }
+      int edgeCount = 0;
+      for (BaseGraph<String,Double>.Node node : graph.nodeList) {
+        for (int i = 0; i < node.edgesLeaving.size(); i++) {
+          BaseGraph<String,Double>.Edge edge = node.edgesLeaving.get(i);
+          if (edge.leavingIndex != i || edge.predecessor != node
+              || edge.successor.edgesEntering.get(edge.enteringIndex) != edge) {
+            Assertions.fail();
+          }
+          rebuilt.insertEdge(node.data, edge.successor.data, edge.data);
+          edgeCount++;
+        }
+        for (int i = 0; i < node.edgesEntering.size(); i++) {
+          BaseGraph<String,Double>.Edge edge = node.edgesEntering.get(i);
+          if (edge.enteringIndex != i || edge.successor != node
+              || edge.predecessor.edgesBySuccessor.get(node) != edge) {
+            Assertions.fail();
+          }
+        }
+      }
+      if (edgeCount != graph.getEdgeCount() || graph.getNodeCount() != rebuilt.getNodeCount()) {
+        Assertions.fail();
+      }
+      checkSameShortestPaths(graph, rebuilt, 60);
+    }
+
+    /**
+     * Tests that an OpenAddressingMap grows past its capacity, rejects
+     * duplicate keys, and still finds every key after removals shifted the
+     * keys after them back.
+     */
+    @Test
+    public void testOpenAddressingMap() {
+      OpenAddressingMap<Integer, String> map = new OpenAddressingMap<>();
+      if (map.getCapacity() != OpenAddressingMap.DEFAULT_CAPACITY
+          || new OpenAddressingMap<>(1000).getCapacity() != 2048) {
+        Assertions.fail();
+      }
+      for (int i = 0; i < 1000; i++) {
+        map.put(i * 64, "v" + i);
+      }
+      try {
+        map.put(64, "again");
+        Assertions.fail();
+      } catch (IllegalArgumentException e) {
+        // each key maps to exactly one value
+      }
+      for (int i = 0; i < 1000; i += 2) {
+        if (!map.remove(i * 64).equals("v" + i)) {
+          Assertions.fail();
+        }
+      }
+      if (map.getSize() != 500 || map.getCapacity() < 1000 / OpenAddressingMap.LOAD_FACTOR) {
+        Assertions.fail();
+      }
+      for (int i = 0; i < 1000; i++) {
+        if (map.containsKey(i * 64) != (i % 2 == 1)
+            || !map.getOrDefault(i * 64, "none").equals(i % 2 == 1 ? "v" + i : "none")) {
+          Assertions.fail();
+        }
+      }
+      try {
+        map.get(0);
+        Assertions.fail();
+      } catch (NoSuchElementException e) {
+        // removed keys are not found
+      }
+      map.clear();
+      if (map.getSize() != 0 || map.containsKey(64)) {
+        Assertions.fail();
+      }
+    }
+
+    /**
+     * Tests that a ConcurrentGraph publishes each change as a new snapshot,
+     * publishes a batch of changes only when the batch ends, and leaves
+     * snapshots that were already published unchanged.
+     */
+    @Test
+    public void testConcurrentGraph() {
+      ConcurrentGraph<String> graph = new ConcurrentGraph<>();
+      graph.insertNode("A");
+      graph.insertNode("B");
+      graph.insertEdge("A","B",2.0);
+      CSRGraph<String> before = graph.getSnapshot();
+
+      graph.beginUpdate();
+      graph.insertNode("C");
+      graph.insertEdge("B","C",3.0);
+      // the writer sees its own changes before they are published
+      if (!graph.containsEdge("B", "C") || graph.getSnapshot() != before) {
+        Assertions.fail();
+      }
+      graph.endUpdate();
+
+      if (graph.getSnapshot() == before || graph.shortestPathCost("A", "C") != 5.0
+          || graph.getEdge("B", "C") != 3.0 || before.containsNode("C")) {
+        Assertions.fail();
+      }
+      graph.removeEdge("A","B");
+      if (!graph.shortestPathData("A", "C").isEmpty() || !before.containsEdge("A", "B")) {
+        Assertions.fail();
+      }
+    }
+
+    /**
+     * Tests that a search between two locations that are not connected
+     * stops once its token is cancelled or expires, instead of settling
+     * every node it can reach, and that a stopped search is not cached.
+     */
+    @Test
+    public void testCancellation() {
+      DijkstraGraph<String,Double> graph = new DijkstraGraph<>();
+      graph.setCache(new ShortestPathCache<>(4));
+      graph.insertNode("N0");
+      for (int i = 0; i < 3 * CancellationToken.CHECK_INTERVAL; i++) {
+        graph.insertNode("N" + (i + 1));
+        graph.insertEdge("N" + i, "N" + (i + 1), 1.0);
+      }
+      graph.insertNode("island");
+      CancellationToken cancelled = new CancellationToken();
+      cancelled.cancel();
+
+      for (CancellationToken token : List.of(cancelled, CancellationToken.withTimeout(0))) {
+        try {
+          graph.shortestPathResult("N0", "island", token);
+          Assertions.fail();
+        } catch (CancellationException e) {
+          // the search stopped at its first check
+        }
+      }
+      try {
+        graph.shortestPathTree("N0", Double.MAX_VALUE, cancelled);
+        Assertions.fail();
+      } catch (CancellationException e) {
+        // the tree search checks the token too
+      }
+      if (!graph.shortestPathResult("N0", "island").isEmpty()
+          || graph.shortestPathResult("N0", "N5", new CancellationToken()).getTotalCost() != 5.0) {
+        Assertions.fail();
+      }
+    }
 }
@@ -0,0 +1,333 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * This DistanceMatrix class stores the cost of the shortest path between
+ * every pair of nodes in a CSRGraph, along with the predecessor of the
+ * destination on each of those paths, so that every query is answered by
+ * looking entries up instead of searching. Since it takes memory for
+ * nodeCount * nodeCount entries, it is meant for small graphs of up to a few
+ * thousand nodes.
+ *
+ * The matrices are computed in parallel with one Dijkstra search per source
+ * node. They can be saved to a file and later mapped back into memory, so
+ * that restarting does not pay for computing them again.
+ */
+public class DistanceMatrix<NodeType> implements ShortestPathADT<NodeType> {
+
+    // identifies matrix files written by save
+    protected static final int FILE_MAGIC = 0x41505332;
+    // bytes before the matrices in a matrix file: the magic number, node
+    // count and edge checksum
+    protected static final int HEADER_BYTES = 16;
+
+    protected CSRGraph<NodeType> graph;
+    protected int nodeCount;
+    // cost[s * nodeCount + t] is the cost from s to t, or infinity
+    protected DoubleBuffer cost;
+    // predecessor[s * nodeCount + t] is the node before t on the path from s,
+    // or -1 when t is s or cannot be reached from s
+    protected IntBuffer predecessor;
+
+    /**
+     * Computes the matrices for the provided graph, running one search per
+     * source node as a separate task in the common ForkJoinPool.
+     *
+     * @param graph the graph to answer queries about
+     * @throws IllegalArgumentException if the graph has too many nodes for
+     *                                  its matrices to fit in an array
+     */
+    public DistanceMatrix(CSRGraph<NodeType> graph) {
+        this.graph = graph;
+        this.nodeCount = graph.getNodeCount();
+        if ((long) nodeCount * nodeCount > Integer.MAX_VALUE)
+            throw new IllegalArgumentException("too many nodes for a distance matrix");
+        double[] costs = new double[nodeCount * nodeCount];
+        int[] predecessors = new int[nodeCount * nodeCount];
+
+        List<RecursiveAction> tasks = new ArrayList<>(nodeCount);
+        for (int source = 0; source < nodeCount; source++) {
+            int row = source;
+            tasks.add(new RecursiveAction() {
+                protected void compute() {
+                    CSRGraph<NodeType>.Search search = graph.computeShortestPaths(row,
+                            -1, Double.POSITIVE_INFINITY);
+                    System.arraycopy(search.cost, 0, costs, row * nodeCount, nodeCount);
+                    System.arraycopy(search.predecessor, 0, predecessors, row * nodeCount,
+                            nodeCount);
+                }
+            });
+        }
+        ForkJoinTask.invokeAll(tasks);
+        this.cost = DoubleBuffer.wrap(costs);
+        this.predecessor = IntBuffer.wrap(predecessors);
+    }
+
+    /**
+     * Creates a matrix from buffers that were mapped from a file.
+     *
+     * @param graph       the graph the matrices were computed for
+     * @param cost        the cost matrix
+     * @param predecessor the predecessor matrix
+     */
+    protected DistanceMatrix(CSRGraph<NodeType> graph, DoubleBuffer cost, IntBuffer predecessor) {
+        this.graph = graph;
+        this.nodeCount = graph.getNodeCount();
+        this.cost = cost;
+        this.predecessor = predecessor;
+    }
+
+    /**
+     * Writes the matrices to a file, after a checksum of the graph's edges
+     * and followed by the data of every node, so that load can check the
+     * file belongs to the same graph.
+     *
+     * @param filename the path of the file to write
+     * @throws IOException if the file could not be written
+     */
+    public void save(String filename) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(new FileOutputStream(filename)))) {
+            out.writeInt(FILE_MAGIC);
+            out.writeInt(nodeCount);
+            out.writeLong(edgeChecksum(graph));
+            for (int i = 0; i < nodeCount * nodeCount; i++)
+                out.writeDouble(cost.get(i));
+            for (int i = 0; i < nodeCount * nodeCount; i++)
+                out.writeInt(predecessor.get(i));
+            for (int id = 0; id < nodeCount; id++)
+                out.writeUTF(graph.getData(id).toString());
+        }
+    }
+
+    /**
+     * Maps the matrices saved in a file into memory without reading them.
+     * The graph must have the same nodes, with the same ids, and the same
+     * edges as the graph the file was saved for, which is the case when both
+     * were frozen from graphs loaded from the same data.
+     *
+     * @param filename the path of a file written by save
+     * @param graph    the graph the matrices were computed for
+     * @return the DistanceMatrix backed by the mapped file
+     * @throws IOException if the file could not be read, or was written for
+     *                     a graph with different nodes or edges
+     */
+    public static <NodeType> DistanceMatrix<NodeType> load(String filename,
+            CSRGraph<NodeType> graph) throws IOException {
+        try (RandomAccessFile file = new RandomAccessFile(filename, "r");
+                FileChannel channel = file.getChannel()) {
+            int nodeCount = graph.getNodeCount();
+            long cells = (long) nodeCount * nodeCount;
+            long namesOffset = HEADER_BYTES + cells * (Double.BYTES + Integer.BYTES);
+            if (file.readInt() != FILE_MAGIC || file.readInt() != nodeCount
+                    || file.readLong() != edgeChecksum(graph) || channel.size() < namesOffset)
+                throw new IOException(filename + " is not a distance matrix for this graph");
+
+            // the names follow the matrices, and must match the graph's nodes in id order
+            channel.position(namesOffset);
+            DataInputStream names = new DataInputStream(
+                    new BufferedInputStream(Channels.newInputStream(channel)));
+            for (int id = 0; id < nodeCount; id++)
+                if (!names.readUTF().equals(graph.getData(id).toString()))
+                    throw new IOException(filename + " is not a distance matrix for this graph");
+
+            // a mapping stays valid after its channel is closed
+            MappedByteBuffer costs = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_BYTES,
+                    cells * Double.BYTES);
+            MappedByteBuffer predecessors = channel.map(FileChannel.MapMode.READ_ONLY,
+                    HEADER_BYTES + cells * Double.BYTES, cells * Integer.BYTES);
+            return new DistanceMatrix<>(graph, costs.asDoubleBuffer(),
+                    predecessors.asIntBuffer());
+        }
+    }
+
+    /**
+     * Returns the list of data values from nodes along the shortest path
+     * from the node with the provided start value through the node with the
+     * provided end value.
+     *
+     * @param start the data item in the starting node for the path
+     * @param end   the data item in the destination node for the path
+     * @return list of data item from node along this shortest path, or an
+     *         empty list if there is no such path
+     */
+    public List<NodeType> shortestPathData(NodeType start, NodeType end) {
+        LinkedList<NodeType> path = new LinkedList<>();
+        if (!graph.containsNode(start) || !graph.containsNode(end))
+            return path;
+        int row = graph.getId(start) * nodeCount;
+        int node = graph.getId(end);
+        if (cost.get(row + node) == Double.POSITIVE_INFINITY)
+            return path;
+        for (; node != -1; node = predecessor.get(row + node))
+            path.addFirst(graph.getData(node));
+        return path;
+    }
+
+    /**
+     * Returns the cost of the path (sum over edge weights) of the shortest
+     * path from the node containing the start data to the node containing the
+     * end data.
+     *
+     * @param start the data item in the starting node for the path
+     * @param end   the data item in the destination node for the path
+     * @return the cost of the shortest path between these nodes
+     * @throws NoSuchElementException when either node is not in the graph or
+     *                                there is no path between them
+     */
+    public double shortestPathCost(NodeType start, NodeType end) {
+        double pathCost = cost.get(graph.getId(start) * nodeCount + graph.getId(end));
+        if (pathCost == Double.POSITIVE_INFINITY)
+            throw new NoSuchElementException("No path from " + start + " to " + end);
+        return pathCost;
+    }
+
+    /**
+     * Returns the nodes along the shortest path from start to end, together
+     * with the weight of every edge on it and the cost of the path up to each
+     * node, read from start's row of the matrices.
+     *
+     * @param start the data item in the starting node for the path
+     * @param end   the data item in the destination node for the path
+     * @return PathResult of the shortest path, which is empty if there is no
+     *         such path
+     */
+    public PathResult<NodeType> shortestPathResult(NodeType start, NodeType end) {
+        if (!graph.containsNode(start) || !graph.containsNode(end))
+            return PathResult.empty();
+        int row = graph.getId(start) * nodeCount;
+        int node = graph.getId(end);
+        if (cost.get(row + node) == Double.POSITIVE_INFINITY)
+            return PathResult.empty();
+        LinkedList<NodeType> path = new LinkedList<>();
+        LinkedList<Double> legCosts = new LinkedList<>();
+        LinkedList<Double> cumulativeCosts = new LinkedList<>();
+        for (; node != -1; node = predecessor.get(row + node)) {
+            int pred = predecessor.get(row + node);
+            path.addFirst(graph.getData(node));
+            cumulativeCosts.addFirst(cost.get(row + node));
+            if (pred != -1)
+                legCosts.addFirst(edgeWeight(pred, node));
+        }
+        return new PathResult<>(path, legCosts, cumulativeCosts);
+    }
+
+    /**
+     * Returns the shortest paths from start to every reachable node, read
+     * from start's row of the matrices.
+     *
+     * @param start the data item in the starting node for the paths
+     * @return ShortestPathTree with the cost and predecessor of every
+     *         reachable node
+     * @throws NoSuchElementException when start is not in the graph
+     */
+    public ShortestPathTree<NodeType> shortestPathTree(NodeType start) {
+        return readTree(start, Double.POSITIVE_INFINITY);
+    }
+
+    /**
+     * Returns the shortest paths from start to every node within maxCost of
+     * it, read from start's row of the matrices.
+     *
+     * @param start   the data item in the starting node for the paths
+     * @param maxCost the largest path cost to include in the tree
+     * @return ShortestPathTree with the cost and predecessor of every node
+     *         within maxCost of start
+     * @throws NoSuchElementException   when start is not in the graph
+     * @throws IllegalArgumentException when maxCost is negative or NaN
+     */
+    public ShortestPathTree<NodeType> shortestPathTree(NodeType start, double maxCost) {
+        ShortestPathTree.checkMaxCost(maxCost);
+        return readTree(start, maxCost);
+    }
+
+    /**
+     * Reads the shortest paths from start to every node within maxCost of
+     * it from start's row of the matrices.
+     *
+     * @param start   the data item in the starting node for the paths
+     * @param maxCost the largest path cost to include in the tree, which may
+     *                be infinite
+     * @return ShortestPathTree with the cost and predecessor of every node
+     *         within maxCost of start
+     * @throws NoSuchElementException when start is not in the graph
+     */
+    private ShortestPathTree<NodeType> readTree(NodeType start, double maxCost) {
+        int row = graph.getId(start) * nodeCount;
+        // sort the reachable nodes within maxCost by their cost from start
+        List<Integer> within = new ArrayList<>();
+        for (int node = 0; node < nodeCount; node++) {
+            double nodeCost = cost.get(row + node);
+            if (nodeCost <= maxCost && nodeCost != Double.POSITIVE_INFINITY)
+                within.add(node);
+        }
+        within.sort((a, b) -> Double.compare(cost.get(row + a), cost.get(row + b)));
+
+        ShortestPathTree<NodeType> tree = new ShortestPathTree<>(start);
+        boolean[] added = new boolean[nodeCount];
+        int[] pending = new int[nodeCount];
+        for (int node : within) {
+            // with zero weight edges a predecessor can tie with its successor,
+            // so add any predecessors not in the tree yet first
+            int count = 0;
+            for (int next = node; next != -1 && !added[next]; next = predecessor.get(row + next))
+                pending[count++] = next;
+            while (count > 0) {
+                int next = pending[--count];
+                int pred = predecessor.get(row + next);
+                if (pred == -1)
+                    tree.add(graph.getData(next), 0, null, 0);
+                else
+                    tree.add(graph.getData(next), cost.get(row + next), graph.getData(pred),
+                            edgeWeight(pred, next));
+                added[next] = true;
+            }
+        }
+        return tree;
+    }
+
+    /**
+     * Computes a checksum of every edge's endpoints and weight in the same
+     * way as ALTGraph does, so that a matrix whose costs were computed
+     * before an edge changed is not loaded for the changed graph.
+     *
+     * @param graph the graph whose edges to sum up
+     * @return the checksum of the graph's edges
+     */
+    protected static <NodeType> long edgeChecksum(CSRGraph<NodeType> graph) {
+        long checksum = 0;
+        for (int id = 0; id < graph.getNodeCount(); id++)
+            for (int edge = graph.edgesStart(id); edge < graph.edgesEnd(id); edge++) {
+                long hash = 31L * graph.getData(id).toString().hashCode()
+                        + graph.getData(graph.edgeTarget(edge)).toString().hashCode();
+                checksum += hash * 1000003L + Double.hashCode(graph.edgeWeight(edge));
+            }
+        return checksum;
+    }
+
+    // returns the weight of the edge from pred to succ
+    private double edgeWeight(int pred, int succ) {
+        double weight = Double.POSITIVE_INFINITY;
+        for (int edge = graph.edgesStart(pred); edge < graph.edgesEnd(pred); edge++)
+            if (graph.edgeTarget(edge) == succ)
+                weight = Math.min(weight, graph.edgeWeight(edge));
+        return weight;
+    }
+
+}
@@ -0,0 +1,261 @@
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A DotParser reads a graph in the DOT language one line at a time and reports every node and edge
+ * statement to a Handler as soon as its line is read, so the whole file is never held in memory.
+ * It understands the subset of DOT used by our graph files: a digraph block containing one
+ * statement per line, either a node like "A"; or an edge like "A" -> "B" [seconds=42.0]; where
+ * node names may be quoted or plain identifiers and the edge weight is read from its seconds
+ * attribute. Blank lines, comments and graph level attributes are skipped.
+ */
+public class DotParser {
+
+  // large reads keep the number of system calls low on multi-hundred-MB files
+  protected static final int BUFFER_SIZE = 1 << 16;
+
+  /**
+   * Receives the statements of a DOT file in the order they appear.
+   */
+  public interface Handler {
+
+    /**
+     * Called for a node statement. Nodes that are only named by edges are not reported here.
+     *
+     * @param name the name of the node
+     */
+    public void node(String name);
+
+    /**
+     * Called for an edge statement.
+     *
+     * @param pred the name of the node the edge leaves
+     * @param succ the name of the node the edge enters
+     * @param seconds the value of the edge's seconds attribute
+     */
+    public void edge(String pred, String succ, double seconds);
+  }
+
+  protected Handler handler;
+  // the line being parsed, and the position of the next character to read from it
+  private String line;
+  private int position;
+  private int lineNumber;
+
+  /**
+   * Creates a parser that reports statements to the provided handler.
+   *
+   * @param handler receives every node and edge statement
+   */
+  public DotParser(Handler handler) {
+    this.handler = handler;
+  }
+
+  /**
+   * Parses the DOT file with the provided name, which is read as UTF-8 like the ranges of a
+   * ParallelDotLoader.
+   *
+   * @param filename the path to a dot file
+   * @throws IOException if the file cannot be read or is not valid DOT
+   */
+  public void parse(String filename) throws IOException {
+    try (Reader reader = new FileReader(filename, StandardCharsets.UTF_8)) {
+      parse(reader);
+    }
+  }
+
+  /**
+   * Parses DOT statements from the provided reader until it is exhausted.
+   *
+   * @param reader the source of the DOT text
+   * @throws IOException if the reader fails or the text is not valid DOT
+   */
+  public void parse(Reader reader) throws IOException {
+    BufferedReader lines = reader instanceof BufferedReader ? (BufferedReader) reader
+        : new BufferedReader(reader, BUFFER_SIZE);
+    lineNumber = 0;
+    for (line = lines.readLine(); line != null; line = lines.readLine()) {
+      lineNumber++;
+      parseLine();
+    }
+  }
+
+  /**
+   * Parses a single line of DOT text, reporting the statement on it if there is one.
+   *
+   * @param text the line to parse
+   * @throws IOException if the line is not valid DOT
+   */
+  public void parseLine(String text) throws IOException {
+    line = text;
+    lineNumber++;
+    parseLine();
+  }
+
+  private void parseLine() throws IOException {
+    position = 0;
+    skipSpace();
+    if (position == line.length() || line.startsWith("//", position)
+        || line.charAt(position) == '#' || line.charAt(position) == '}') {
+      return;
+    }
+    if (line.charAt(position) != '"') {
+      // the graph header and graph level attributes start with a keyword
+      int start = position;
+      String word = readPlainName();
+      skipSpace();
+      if (word.equals("digraph") || word.equals("graph") || word.equals("strict")
+          || word.equals("node") || word.equals("edge")
+          || (position < line.length() && line.charAt(position) == '=')) {
+        return;
+      }
+      position = start;
+    }
+
+    String pred = readName();
+    skipSpace();
+    if (!line.startsWith("->", position)) {
+      // a node statement, optionally with attributes
+      readAttributes();
+      handler.node(pred);
+      return;
+    }
+    position += 2;
+    skipSpace();
+    String succ = readName();
+    skipSpace();
+    String seconds = readAttributes();
+    if (seconds == null) {
+      throw error("edge from " + pred + " to " + succ + " has no seconds attribute");
+    }
+    double weight;
+    try {
+      weight = Double.parseDouble(seconds);
+    } catch (NumberFormatException e) {
+      throw error("seconds of edge from " + pred + " to " + succ + " is not a number");
+    }
+    // searches only find shortest paths over finite weights that are not negative
+    if (!(weight >= 0) || Double.isInfinite(weight)) {
+      throw error("seconds of edge from " + pred + " to " + succ + " is " + seconds
+          + ", not a finite number of at least 0");
+    }
+    handler.edge(pred, succ, weight);
+  }
+
+  /**
+   * Reads an optional attribute list like [a=1, b="x"] followed by an optional semicolon, and
+   * returns the value of its seconds attribute.
+   *
+   * @return the value of the seconds attribute, or null if there is none
+   * @throws IOException if the attribute list is malformed or the line has more text after it
+   */
+  private String readAttributes() throws IOException {
+    String seconds = null;
+    if (position < line.length() && line.charAt(position) == '[') {
+      position++;
+      while (true) {
+        skipSpace();
+        if (position == line.length()) {
+          throw error("unterminated attribute list");
+        }
+        char c = line.charAt(position);
+        if (c == ']') {
+          position++;
+          break;
+        }
+        if (c == ',' || c == ';') {
+          position++;
+          continue;
+        }
+        String key = readName();
+        skipSpace();
+        if (position == line.length() || line.charAt(position) != '=') {
+          throw error("attribute " + key + " has no value");
+        }
+        position++;
+        skipSpace();
+        String value = readName();
+        if (key.equals("seconds")) {
+          seconds = value;
+        }
+      }
+      skipSpace();
+    }
+    if (position < line.length() && line.charAt(position) == ';') {
+      position++;
+      skipSpace();
+    }
+    if (position < line.length() && !line.startsWith("//", position)) {
+      throw error("unexpected " + line.substring(position));
+    }
+    return seconds;
+  }
+
+  // reads a quoted string or a plain identifier
+  private String readName() throws IOException {
+    if (position < line.length() && line.charAt(position) == '"') {
+      return readQuotedName();
+    }
+    String name = readPlainName();
+    if (name.isEmpty()) {
+      throw error("expected a name");
+    }
+    return name;
+  }
+
+  private String readQuotedName() throws IOException {
+    int start = ++position;
+    int end = line.indexOf('"', start);
+    int escape = line.indexOf('\\', start);
+    // most names have no escaped quotes, and can be copied in one piece
+    if (end != -1 && (escape == -1 || escape > end)) {
+      position = end + 1;
+      return line.substring(start, end);
+    }
+    StringBuilder name = new StringBuilder();
+    for (; position < line.length(); position++) {
+      char c = line.charAt(position);
+      if (c == '"') {
+        position++;
+        return name.toString();
+      }
+      if (c == '\\' && position + 1 < line.length() && line.charAt(position + 1) == '"') {
+        c = '"';
+        position++;
+      }
+      name.append(c);
+    }
+    throw error("unterminated quoted name");
+  }
+
+  // DOT identifiers are made of letters, digits, underscores and the characters of numerals
+  private String readPlainName() {
+    int start = position;
+    while (position < line.length()) {
+      char c = line.charAt(position);
+      if (!Character.isLetterOrDigit(c) && c != '_' && c != '.' && c != '-') {
+        break;
+      }
+      // stop before an edge operator
+      if (c == '-' && line.startsWith("->", position)) {
+        break;
+      }
+      position++;
+    }
+    return line.substring(start, position);
+  }
+
+  private void skipSpace() {
+    while (position < line.length() && Character.isWhitespace(line.charAt(position))) {
+      position++;
+    }
+  }
+
+  private IOException error(String message) {
+    return new IOException("line " + lineNumber + ": " + message);
+  }
+
+}
@@ -1,6 +1,8 @@
 import java.io.IOException;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionException;
 
 import javafx.application.Application;
 import javafx.application.Platform;
@@ -15,9 +17,14 @@ import javafx.stage.Stage;
 
 public class Frontend extends Application implements FrontendInterface {
   private static BackendInterface back;
+  // runs the queries of back on background threads, so the JavaFX application thread never waits
+  // for a search
+  private static AsyncBackend queries;
   private String startingLocation = "";
   private String endingLocation = "";
   private List<String> shortestPath = new LinkedList<String>();
+  // the walking times along shortestPath, found by the same search as the path itself
+  private List<Double> shortestPathTimes = new LinkedList<Double>();
 
   private Label startPathLabel;
   private TextField startPathField;
@@ -39,9 +46,17 @@ public class Frontend extends Application implements FrontendInterface {
   private boolean aboutShown = false;
   private Button quitButton;
 
+  // the names suggested for the text field being typed into
+  private Label suggestionsLabel;
+  private static final int SUGGESTION_LIMIT = 5;
+
   public static void setBackend(BackendInterface back) {
     try {
       Frontend.back = back;
+      if (queries != null) {
+        queries.shutdown();
+      }
+      queries = new AsyncBackend(back);
       back.loadGraphData("campus.dot");
     } catch (IOException e) {
       System.out.println("The graph file could not be found.");
@@ -63,6 +78,7 @@ public class Frontend extends Application implements FrontendInterface {
     createPathListDisplay(parent);
     createAdditionalFeatureControls(parent);
     createAboutAndQuitControls(parent);
+    createSuggestionDisplay(parent);
   }
 
   public void createShortestPathControls(Pane parent) {
@@ -99,32 +115,54 @@ public class Frontend extends Application implements FrontendInterface {
     findPathButton.addEventHandler(MouseEvent.MOUSE_CLICKED, (event) -> {
       startingLocation = startPathField.getText();
       endingLocation = endPathField.getText();
-      shortestPath = back.findShortestPath(startingLocation, endingLocation);
+      // the search runs in the background, and a newer click cancels it
+      queries.findShortestPathResult(startingLocation, endingLocation).whenComplete(
+          (result, exception) -> {
+            Throwable failure = failureOf(exception);
+            if (exception == null) {
+              Platform.runLater(() -> showShortestPath(result));
+            } else if (failure != null) {
+              Platform.runLater(() -> shortestPathLabel.setText(
+                  "The shortest path could not be found: " + failure.getMessage()));
+            }
+          });
+    });
+  }
 
-      if (shortestPath.isEmpty()) {
-        shortestPathLabel.setText("There was an error with finding the shortest path between your two\nchosen locations.");
-      } else {
-        String label = "Results List: ";
-      
-        if (walkingTimesCheckbox.isSelected()) {
-          List<Double> shortestPathTimes = back.getTravelTimesOnPath(startingLocation, endingLocation);
-          for (int i = 0; i<shortestPath.size(); i++) {
-            label += "\n\t" + shortestPath.get(i);
+  // returns why a background query failed, or null if it succeeded or a newer query cancelled it
+  private static Throwable failureOf(Throwable exception) {
+    if (exception instanceof CompletionException && exception.getCause() != null) {
+      exception = exception.getCause();
+    }
+    return exception instanceof CancellationException ? null : exception;
+  }
 
-            if (i != shortestPath.size()-1) {
-              label += "\n\t  (" + shortestPathTimes.get(i) + " seconds)";
-            }
-          }
-        } else {
-          for (int i = 0; i<shortestPath.size(); i++) {
-            label += "\n\t" + shortestPath.get(i);
+  // shows the shortest path found after a click on findPathButton, on the JavaFX application thread
+  private void showShortestPath(PathResult<String> result) {
+    shortestPath = result.getNodes();
+    shortestPathTimes = result.getLegCosts();
+
+    if (shortestPath.isEmpty()) {
+      shortestPathLabel.setText("There was an error with finding the shortest path between your two\nchosen locations.");
+    } else {
+      String label = "Results List: ";
+    
+      if (walkingTimesCheckbox.isSelected()) {
+        for (int i = 0; i<shortestPath.size(); i++) {
+          label += "\n\t" + shortestPath.get(i);
+
+          if (i != shortestPath.size()-1) {
+            label += "\n\t  (" + shortestPathTimes.get(i) + " seconds)";
           }
         }
-
-        shortestPathLabel.setText(label);
+      } else {
+        for (int i = 0; i<shortestPath.size(); i++) {
+          label += "\n\t" + shortestPath.get(i);
+        }
       }
 
-    });
+      shortestPathLabel.setText(label);
+    }
   }
 
   public void createPathListDisplay(Pane parent) {
@@ -153,7 +191,6 @@ public class Frontend extends Application implements FrontendInterface {
         if (shortestPath.isEmpty()) {
           shortestPathLabel.setText("Cannot use the checkbox when a shortest path has not been found.");
         } else {
-          List<Double> shortestPathTimes = back.getTravelTimesOnPath(startingLocation, endingLocation);
           for (int i = 0; i<shortestPath.size(); i++) {
             label += "\n\t" + shortestPath.get(i);
 
@@ -212,18 +249,17 @@ public class Frontend extends Application implements FrontendInterface {
       try {
         String startingLocation = startingLocationField.getText();
         String time = timeField.getText();
-        String label = "Locations within " + time + " seconds of " + startingLocation;
-        List<String> reachableLocations = back.getReachableLocations(startingLocation, Double.parseDouble(time));
-
-        if (reachableLocations.isEmpty()) {
-          label = "Your location could not be found in the graph.";
-        } else {
-          for (int i = 0; i<reachableLocations.size(); i++) {
-            label += "\n\t" + reachableLocations.get(i);
-          }
-        }
-
-        reachableLocationsLabel.setText(label);
+        String heading = "Locations within " + time + " seconds of " + startingLocation;
+        queries.getReachableLocations(startingLocation, Double.parseDouble(time)).whenComplete(
+            (reachableLocations, exception) -> {
+              Throwable failure = failureOf(exception);
+              if (exception == null) {
+                Platform.runLater(() -> showReachableLocations(heading, reachableLocations));
+              } else if (failure != null) {
+                Platform.runLater(() -> reachableLocationsLabel.setText(
+                    "The reachable locations could not be found: " + failure.getMessage()));
+              }
+            });
       } catch (NumberFormatException e) {
         String label = "You must input a number into the time field";
         reachableLocationsLabel.setText(label);
@@ -231,6 +267,56 @@ public class Frontend extends Application implements FrontendInterface {
     });
   }
 
+  // shows the locations found after a click on findLocationsButton, on the JavaFX application thread
+  private void showReachableLocations(String heading, List<String> reachableLocations) {
+    String label = heading;
+    if (reachableLocations.isEmpty()) {
+      label = "Your location could not be found in the graph.";
+    } else {
+      for (int i = 0; i<reachableLocations.size(); i++) {
+        label += "\n\t" + reachableLocations.get(i);
+      }
+    }
+
+    reachableLocationsLabel.setText(label);
+  }
+
+  public void createSuggestionDisplay(Pane parent) {
+    suggestionsLabel = new Label("");
+    suggestionsLabel.setId("suggestionsLabel");
+    suggestionsLabel.setLayoutX(32);
+    suggestionsLabel.setLayoutY(400);
+    parent.getChildren().add(suggestionsLabel);
+
+    // every keypress in a location field shows the locations that match the text typed so far
+    // createAllControls creates these fields before it calls this method
+    for (TextField field : List.of(startPathField, endPathField, startingLocationField)) {
+      field.textProperty().addListener((property, oldText, newText) -> {
+        // each keypress cancels the lookup for the text before it
+        queries.suggestLocations(newText, SUGGESTION_LIMIT).whenComplete(
+            (suggestions, exception) -> {
+              Throwable failure = failureOf(exception);
+              if (exception != null && failure == null) {
+                return;
+              }
+              Platform.runLater(() -> {
+                if (!field.getText().equals(newText)) {
+                  // the field has changed since, and its own suggestions are on the way
+                  return;
+                }
+                if (failure != null) {
+                  suggestionsLabel.setText("Suggestions are unavailable: " + failure.getMessage());
+                } else if (suggestions.isEmpty() || suggestions.get(0).equals(newText)) {
+                  suggestionsLabel.setText("");
+                } else {
+                  suggestionsLabel.setText("Did you mean: " + String.join(" | ", suggestions));
+                }
+              });
+            });
+      });
+    }
+  }
+
   public void createAboutAndQuitControls(Pane parent) {
     aboutButton = new Button("About");
     aboutButton.setId("aboutButton");
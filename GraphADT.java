@@ -3,13 +3,14 @@ import java.util.NoSuchElementException;
 
 /**
  * This ADT represents a directed graph data structure with only positive edge weights. Duplicate
- * node values are not allowed.
+ * node values are not allowed. The shortest path queries shared with read-only graph structures are
+ * declared in ShortestPathADT.
  *
  * @param NodeType is the data type stored at each graph node
  * @param EdgeType is the numeric data type stored at each graph edge, with a doubleValue() method
  *     that always returns a value >=0.0
  */
-public interface GraphADT<NodeType, EdgeType extends Number> {
+public interface GraphADT<NodeType, EdgeType extends Number> extends ShortestPathADT<NodeType> {
 
   /**
    * Insert a new node into the graph.
@@ -117,4 +118,15 @@ public interface GraphADT<NodeType, EdgeType extends Number> {
    * @return the cost of the shortest path between these nodes
    */
   public double shortestPathCost(NodeType start, NodeType end);
+
+  /**
+   * Returns the nodes, edge weights and cumulative costs along the shortest path from the node
+   * containing the start data to the node containing the end data, all found by a single search.
+   *
+   * @param start the data item in the starting node for the path
+   * @param end the data item in the destination node for the path
+   * @return the PathResult of the shortest path between these nodes, which is empty if there is
+   *     no such path
+   */
+  public PathResult<NodeType> shortestPathResult(NodeType start, NodeType end);
 }
@@ -0,0 +1,78 @@
+/**
+ * A GraphDiff counts the changes that a reload applied to a graph: the locations that were added
+ * or removed, and the edges that were inserted, removed or given a new weight. Edges that were
+ * removed together with one of their locations are counted as removed edges too.
+ */
+public class GraphDiff {
+
+  protected int addedLocations = 0;
+  protected int removedLocations = 0;
+  protected int insertedEdges = 0;
+  protected int removedEdges = 0;
+  protected int reweightedEdges = 0;
+
+  /**
+   * Returns the number of locations that were not in the graph before the reload.
+   *
+   * @return the number of added locations
+   */
+  public int getAddedLocations() {
+    return addedLocations;
+  }
+
+  /**
+   * Returns the number of locations that are not in the reloaded file.
+   *
+   * @return the number of removed locations
+   */
+  public int getRemovedLocations() {
+    return removedLocations;
+  }
+
+  /**
+   * Returns the number of edges that were not in the graph before the reload.
+   *
+   * @return the number of inserted edges
+   */
+  public int getInsertedEdges() {
+    return insertedEdges;
+  }
+
+  /**
+   * Returns the number of edges that are not in the reloaded file.
+   *
+   * @return the number of removed edges
+   */
+  public int getRemovedEdges() {
+    return removedEdges;
+  }
+
+  /**
+   * Returns the number of edges whose weight changed.
+   *
+   * @return the number of reweighted edges
+   */
+  public int getReweightedEdges() {
+    return reweightedEdges;
+  }
+
+  /**
+   * Checks whether the reload changed anything.
+   *
+   * @return true if no location or edge changed, or false otherwise
+   */
+  public boolean isEmpty() {
+    return addedLocations + removedLocations + insertedEdges + removedEdges + reweightedEdges == 0;
+  }
+
+  /**
+   * Summarizes the changes.
+   *
+   * @return a String with the count of every kind of change
+   */
+  public String toString() {
+    return "+" + addedLocations + " -" + removedLocations + " locations, +" + insertedEdges + " -"
+        + removedEdges + " ~" + reweightedEdges + " edges";
+  }
+
+}
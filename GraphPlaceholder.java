@@ -40,14 +40,14 @@ public class GraphPlaceholder implements GraphADT<String, Double> {
   public boolean containsEdge(String pred, String succ) {
     return (pred.equals("Union South") && succ.equals("Computer Sciences and Statistics"))
         || (pred.equals("Computer Sciences and Statistics")
-            && pred.equals("Atmospheric, Oceanic and Space Sciences"));
+            && succ.equals("Atmospheric, Oceanic and Space Sciences"));
   }
 
   public Double getEdge(String pred, String succ) {
     if (pred.equals("Union South") && succ.equals("Computer Sciences and Statistics")) {
       return 176.0;
     } else if (pred.equals("Computer Sciences and Statistics")
-        && pred.equals("Atmospheric, Oceanic and Space Sciences")) {
+        && succ.equals("Atmospheric, Oceanic and Space Sciences")) {
       return 127.2;
     } else {
       throw new NoSuchElementException();
@@ -65,4 +65,28 @@ public class GraphPlaceholder implements GraphADT<String, Double> {
   public double shortestPathCost(String start, String end) {
     return 303.2;
   }
+
+  public PathResult<String> shortestPathResult(String start, String end) {
+    List<Double> legCosts = new ArrayList<>();
+    legCosts.add(176.0);
+    legCosts.add(127.2);
+    return new PathResult<>(path, legCosts);
+  }
+
+  public ShortestPathTree<String> shortestPathTree(String start) {
+    return shortestPathTree(start, Double.POSITIVE_INFINITY);
+  }
+
+  public ShortestPathTree<String> shortestPathTree(String start, double maxCost) {
+    ShortestPathTree<String> tree = new ShortestPathTree<>(path.get(0));
+    tree.add(path.get(0), 0.0, null, 0.0);
+    if (maxCost >= 176.0) {
+      tree.add(path.get(1), 176.0, path.get(0), 176.0);
+    }
+    if (maxCost >= 303.2) {
+      tree.add(path.get(2), 303.2, path.get(1), 127.2);
+      tree.add("Memorial Union", 303.2, path.get(0), 303.2);
+    }
+    return tree;
+  }
 }
@@ -0,0 +1,122 @@
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * A GraphRegistry serves several named graphs from one program, such as a campus, a hospital and
+ * a city walking network. Each graph has a Backend of its own, which answers the queries of
+ * BackendInterface for that graph only, so loading one graph never mixes its locations into
+ * another. All backends of a registry share one NamePool, so a location that appears in several
+ * graphs keeps a single copy of its name in memory.
+ *
+ * Graphs can be loaded, replaced and unloaded while other graphs, or the graph being replaced,
+ * are answering queries: a graph is read into a new backend first, and only then takes the place
+ * of the graph registered under its name. Queries that are still running on a replaced or
+ * unloaded graph finish with the old graph data.
+ */
+public class GraphRegistry {
+
+  protected Map<String, Backend> graphs = new ConcurrentHashMap<>();
+  protected NamePool names = new NamePool();
+  // creates the empty graph each new backend reads its graph data into
+  protected Supplier<GraphADT<String, Double>> graphFactory;
+
+  /**
+   * Creates an empty registry that reads graph data into ConcurrentGraphs, so that a graph can be
+   * reloaded while it answers queries.
+   */
+  public GraphRegistry() {
+    this(ConcurrentGraph::new);
+  }
+
+  /**
+   * Creates an empty registry that reads graph data into the graphs of the provided factory.
+   *
+   * @param graphFactory creates a new empty graph for each graph that is loaded
+   */
+  public GraphRegistry(Supplier<GraphADT<String, Double>> graphFactory) {
+    this.graphFactory = graphFactory;
+  }
+
+  /**
+   * Loads a dot file or binary graph file under the provided name. If a graph is registered
+   * under that name already, it is replaced once the new graph data has been read, and it keeps
+   * answering queries until then.
+   *
+   * @param name     the name to register the graph under
+   * @param filename the path to a dot file or binary graph file to read graph data from
+   * @return the backend of the loaded graph, which can still be changed, for example to answer
+   * queries from a contraction hierarchy
+   * @throws IOException if there was a problem reading in the specified file, in which case the
+   *                     graph registered under name is left as it was
+   */
+  public Backend load(String name, String filename) throws IOException {
+    Backend backend = new Backend(graphFactory.get(), names);
+    backend.loadGraphData(filename);
+    graphs.put(name, backend);
+    return backend;
+  }
+
+  /**
+   * Unloads the graph registered under the provided name. Its memory is released once the
+   * queries still running on it have finished, including the names of the locations that no
+   * other graph has.
+   *
+   * @param name the name of the graph
+   * @return true if a graph was unloaded, or false if no graph was registered under name
+   */
+  public boolean unload(String name) {
+    return graphs.remove(name) != null;
+  }
+
+  /**
+   * Returns the backend that answers the queries on the graph registered under the provided name.
+   *
+   * @param name the name of the graph
+   * @return the backend of that graph
+   * @throws NoSuchElementException if no graph is registered under name
+   */
+  public BackendInterface get(String name) {
+    Backend backend = graphs.get(name);
+    if (backend == null) {
+      throw new NoSuchElementException("no graph is loaded under the name " + name);
+    }
+    return backend;
+  }
+
+  /**
+   * Checks whether a graph is registered under the provided name.
+   *
+   * @param name the name of the graph
+   * @return true if the graph is loaded, or false otherwise
+   */
+  public boolean contains(String name) {
+    return graphs.containsKey(name);
+  }
+
+  /**
+   * Returns the names of all loaded graphs in alphabetical order.
+   *
+   * @return a new list of the graph names
+   */
+  public List<String> getGraphNames() {
+    List<String> graphNames = new ArrayList<>(graphs.keySet());
+    Collections.sort(graphNames);
+    return graphNames;
+  }
+
+  /**
+   * Returns the pool of location names shared by the backends of all graphs.
+   *
+   * @return the name pool of this registry
+   */
+  public NamePool getNamePool() {
+    return names;
+  }
+
+}
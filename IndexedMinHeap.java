@@ -0,0 +1,206 @@
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * This IndexedMinHeap class is a priority queue of int ids from 0 to
+ * capacity-1, each with a double key. Every id is stored at most once, and the
+ * heap remembers the position of each id, so the key of a queued id can be
+ * decreased in place instead of adding a duplicate entry. The heap is stored
+ * in primitive arrays as a d-ary tree: a larger arity makes the tree shallower,
+ * which speeds up decreaseKey at a small cost to removeMin.
+ */
+public class IndexedMinHeap {
+
+    protected static final int DEFAULT_ARITY = 4;
+
+    protected int arity;
+    protected int size = 0;
+    // ids and keys of the queued entries, in heap order
+    protected int[] heap;
+    protected double[] keys;
+    // position of each id within heap, or -1 when that id is not queued
+    protected int[] positions;
+
+    /**
+     * Creates an empty 4-ary heap for the ids from 0 to capacity-1.
+     *
+     * @param capacity the number of ids this heap can hold
+     */
+    public IndexedMinHeap(int capacity) {
+        this(capacity, DEFAULT_ARITY);
+    }
+
+    /**
+     * Creates an empty d-ary heap for the ids from 0 to capacity-1.
+     *
+     * @param capacity the number of ids this heap can hold
+     * @param arity    the number of children of each heap entry, at least 2
+     * @throws IllegalArgumentException if arity is less than 2
+     */
+    public IndexedMinHeap(int capacity, int arity) {
+        if (arity < 2)
+            throw new IllegalArgumentException("arity must be at least 2");
+        this.arity = arity;
+        this.heap = new int[capacity];
+        this.keys = new double[capacity];
+        this.positions = new int[capacity];
+        Arrays.fill(positions, -1);
+    }
+
+    /**
+     * Checks whether this heap is empty.
+     *
+     * @return true if no ids are queued, or false otherwise
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Return the number of ids in this heap.
+     *
+     * @return the number of queued ids
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Checks whether an id is currently queued.
+     *
+     * @param id the id to check for
+     * @return true if id is in this heap, or false otherwise
+     */
+    public boolean contains(int id) {
+        return positions[id] != -1;
+    }
+
+    /**
+     * Returns the key of a queued id.
+     *
+     * @param id the id to look up
+     * @return the key of that id
+     * @throws NoSuchElementException if id is not in this heap
+     */
+    public double getKey(int id) {
+        if (positions[id] == -1)
+            throw new NoSuchElementException("id " + id + " is not queued");
+        return keys[positions[id]];
+    }
+
+    /**
+     * Adds an id with the provided key, or lowers the key of an id that is
+     * already queued. Keys are never raised by this method.
+     *
+     * @param id  the id to add or update
+     * @param key the new key for id
+     * @return true if id was added or its key was lowered, or false if it was
+     *         already queued with a key at most this low
+     */
+    public boolean insertOrDecrease(int id, double key) {
+        int position = positions[id];
+        if (position == -1) {
+            position = size++;
+            heap[position] = id;
+            keys[position] = key;
+            positions[id] = position;
+        } else if (key < keys[position]) {
+            keys[position] = key;
+        } else {
+            return false;
+        }
+        siftUp(position);
+        return true;
+    }
+
+    /**
+     * Returns the key of the id with the smallest key, without removing it.
+     *
+     * @return the smallest key in this heap
+     * @throws NoSuchElementException if this heap is empty
+     */
+    public double peekKey() {
+        if (size == 0)
+            throw new NoSuchElementException("heap is empty");
+        return keys[0];
+    }
+
+    /**
+     * Removes and returns the id with the smallest key.
+     *
+     * @return the id with the smallest key
+     * @throws NoSuchElementException if this heap is empty
+     */
+    public int removeMin() {
+        if (size == 0)
+            throw new NoSuchElementException("heap is empty");
+        int min = heap[0];
+        positions[min] = -1;
+        size--;
+        if (size > 0) {
+            // move the last entry to the root and restore heap order
+            heap[0] = heap[size];
+            keys[0] = keys[size];
+            positions[heap[0]] = 0;
+            siftDown(0);
+        }
+        return min;
+    }
+
+    /**
+     * Removes every id from this heap.
+     */
+    public void clear() {
+        for (int i = 0; i < size; i++)
+            positions[heap[i]] = -1;
+        size = 0;
+    }
+
+    protected void siftUp(int position) {
+        int id = heap[position];
+        double key = keys[position];
+        while (position > 0) {
+            int parent = (position - 1) / arity;
+            if (keys[parent] <= key)
+                break;
+            move(parent, position);
+            position = parent;
+        }
+        place(id, key, position);
+    }
+
+    protected void siftDown(int position) {
+        int id = heap[position];
+        double key = keys[position];
+        while (true) {
+            int firstChild = position * arity + 1;
+            if (firstChild >= size)
+                break;
+            // find the child with the smallest key
+            int lastChild = Math.min(firstChild + arity, size);
+            int minChild = firstChild;
+            for (int child = firstChild + 1; child < lastChild; child++)
+                if (keys[child] < keys[minChild])
+                    minChild = child;
+            if (keys[minChild] >= key)
+                break;
+            move(minChild, position);
+            position = minChild;
+        }
+        place(id, key, position);
+    }
+
+    // copies the entry at position from into position to
+    private void move(int from, int to) {
+        heap[to] = heap[from];
+        keys[to] = keys[from];
+        positions[heap[to]] = to;
+    }
+
+    private void place(int id, double key, int position) {
+        heap[position] = id;
+        keys[position] = key;
+        positions[id] = position;
+    }
+
+}
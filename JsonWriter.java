@@ -0,0 +1,152 @@
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * A JsonWriter writes a JSON value piece by piece as it is produced, putting the commas between
+ * the members of objects and arrays itself. Numbers that JSON cannot represent, such as
+ * infinity, are written as null.
+ */
+public class JsonWriter implements Closeable {
+
+  /**
+   * Supplies the stream a JsonWriter writes to, the first time it writes anything.
+   */
+  public interface Body {
+    public OutputStream open() throws IOException;
+  }
+
+  protected Body body;
+  protected Appendable out = null;
+  // one entry for each open object or array, which is true until its first member is written
+  protected Deque<Boolean> first = new ArrayDeque<>();
+  // true right after a member name, whose value needs no comma
+  protected boolean named = false;
+
+  /**
+   * Creates a writer that opens the provided body when it first writes something.
+   *
+   * @param body supplies the stream to write to
+   */
+  public JsonWriter(Body body) {
+    this.body = body;
+  }
+
+  /**
+   * Creates a writer that appends to the provided text.
+   *
+   * @param out the text to append to
+   */
+  public JsonWriter(Appendable out) {
+    this.out = out;
+  }
+
+  /**
+   * Checks whether anything has been written yet.
+   *
+   * @return true once the body has been opened
+   */
+  public boolean isStarted() {
+    return out != null;
+  }
+
+  public JsonWriter beginObject() throws IOException {
+    separate();
+    out.append('{');
+    first.push(true);
+    return this;
+  }
+
+  public JsonWriter endObject() throws IOException {
+    first.pop();
+    out.append('}');
+    return this;
+  }
+
+  public JsonWriter beginArray() throws IOException {
+    separate();
+    out.append('[');
+    first.push(true);
+    return this;
+  }
+
+  public JsonWriter endArray() throws IOException {
+    first.pop();
+    out.append(']');
+    return this;
+  }
+
+  public JsonWriter name(String name) throws IOException {
+    separate();
+    string(name);
+    out.append(':');
+    named = true;
+    return this;
+  }
+
+  public JsonWriter value(String value) throws IOException {
+    separate();
+    string(value);
+    return this;
+  }
+
+  public JsonWriter value(long value) throws IOException {
+    separate();
+    out.append(Long.toString(value));
+    return this;
+  }
+
+  public JsonWriter value(double value) throws IOException {
+    separate();
+    out.append(Double.isFinite(value) ? Double.toString(value) : "null");
+    return this;
+  }
+
+  // opens the body on first use, and writes the comma before a member unless it comes first
+  private void separate() throws IOException {
+    if (out == null) {
+      out = new BufferedWriter(new OutputStreamWriter(body.open(), StandardCharsets.UTF_8));
+    }
+    if (named) {
+      named = false;
+    } else if (!first.isEmpty()) {
+      if (!first.pop()) {
+        out.append(',');
+      }
+      first.push(false);
+    }
+  }
+
+  private void string(String text) throws IOException {
+    out.append('"');
+    for (int i = 0; i < text.length(); i++) {
+      char c = text.charAt(i);
+      if (c == '"' || c == '\\') {
+        out.append('\\').append(c);
+      } else if (c < ' ') {
+        out.append(String.format("\\u%04x", (int) c));
+      } else {
+        out.append(c);
+      }
+    }
+    out.append('"');
+  }
+
+  /**
+   * Flushes the written JSON to the body and closes it.
+   *
+   * @throws IOException if the body could not be written
+   */
+  public void close() throws IOException {
+    if (out instanceof Writer) {
+      ((Writer) out).close();
+    }
+  }
+
+}
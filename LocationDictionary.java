@@ -0,0 +1,123 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.function.Predicate;
+
+/**
+ * A LocationDictionary maps every location name to a dense int id: the first location added gets
+ * id 0, the next new one id 1, and so on. Adding a name that is already known returns its existing
+ * id, so each location is stored once no matter how many edges name it. Because the backend adds
+ * locations in the order it inserts them into its graph, the ids of a freshly loaded graph are the
+ * node ids of the CSRGraph frozen from it, and can be passed to id based engines directly.
+ */
+public class LocationDictionary {
+
+  protected MapADT<String, Integer> ids = new OpenAddressingMap<>();
+  protected List<String> names = new ArrayList<>();
+  // a read-only view of names, so listing the locations does not copy them
+  protected List<String> view = Collections.unmodifiableList(names);
+
+  /**
+   * Adds a location if it is not known yet.
+   *
+   * @param name the name of the location
+   * @return the id of the location
+   */
+  public int add(String name) {
+    Integer known = ids.getOrDefault(name, null);
+    if (known != null) {
+      return known;
+    }
+    int id = names.size();
+    ids.put(name, id);
+    names.add(name);
+    return id;
+  }
+
+  /**
+   * Checks whether a location is known.
+   *
+   * @param name the name of the location
+   * @return true if the location has an id, or false otherwise
+   */
+  public boolean contains(String name) {
+    return ids.containsKey(name);
+  }
+
+  /**
+   * Returns the id of a location.
+   *
+   * @param name the name of the location
+   * @return the id of that location
+   * @throws NoSuchElementException if the location is not known
+   */
+  public int getId(String name) {
+    Integer id = ids.getOrDefault(name, null);
+    if (id == null) {
+      throw new NoSuchElementException(name + " is not a known location");
+    }
+    return id;
+  }
+
+  /**
+   * Returns the name of the location with the provided id.
+   *
+   * @param id the id of the location
+   * @return the name of that location
+   * @throws IndexOutOfBoundsException if no location has this id
+   */
+  public String getName(int id) {
+    return names.get(id);
+  }
+
+  /**
+   * Returns the number of known locations.
+   *
+   * @return the number of locations, which is one more than the largest id
+   */
+  public int size() {
+    return names.size();
+  }
+
+  /**
+   * Returns the names of all locations in id order. The list is a read-only view that always
+   * reflects the current locations, so it is never copied.
+   *
+   * @return an unmodifiable list of the location names
+   */
+  public List<String> getNames() {
+    return view;
+  }
+
+  /**
+   * Removes every location that does not pass the provided test. The remaining locations keep
+   * their order and are given new dense ids.
+   *
+   * @param keep the test a location must pass to stay
+   * @return the names of the removed locations
+   */
+  public List<String> retain(Predicate<String> keep) {
+    List<String> removed = new ArrayList<>();
+    List<String> kept = new ArrayList<>();
+    for (String name : names) {
+      (keep.test(name) ? kept : removed).add(name);
+    }
+    if (!removed.isEmpty()) {
+      clear();
+      for (String name : kept) {
+        add(name);
+      }
+    }
+    return removed;
+  }
+
+  /**
+   * Removes all locations.
+   */
+  public void clear() {
+    ids.clear();
+    names.clear();
+  }
+
+}
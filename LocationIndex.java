@@ -0,0 +1,337 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * A LocationIndex suggests location names for partly typed or misspelled text, fast enough to run
+ * on every keypress. The names are kept in lower case in a sorted array, together with a second
+ * sorted array of every later word of every name, so that "union" also finds "Memorial Union".
+ * Names that start with the typed text are found by binary search. A sorted array is a trie in
+ * disguise: all keys that share a prefix form one range of it, so misspelled text is matched by
+ * walking that trie with a row of edit distances per prefix, and giving up on a prefix as soon as
+ * it is too far from the text. That way "memorail" still suggests "Memorial Union" after visiting
+ * only a few hundred prefixes. The index is read-only once built, and can be searched by several
+ * threads.
+ */
+public class LocationIndex {
+
+  // typed text this long may have one typo, and text of twice this length two
+  protected static final int TYPO_LENGTH = 4;
+
+  // the indexed names, in the order they were provided
+  protected String[] names;
+  // the lower case names, and the lower case names from their second word on
+  protected KeyArray nameKeys;
+  protected KeyArray wordKeys;
+
+  /**
+   * Lower case keys in sorted order, each with the id of the name it belongs to. The keys are
+   * stored one after another in a single char array, so keys that are next to each other in the
+   * order are next to each other in memory too, and a search that narrows down on a range of keys
+   * reads them from the same few cache lines.
+   */
+  protected static class KeyArray {
+    protected char[] chars;
+    // the position of each key in chars, followed by the length of chars
+    protected int[] starts;
+    protected int[] ids;
+
+    /**
+     * Sorts the provided keys into a new KeyArray.
+     *
+     * @param keys the keys to store
+     * @param ids  the id of the name of each key
+     */
+    protected KeyArray(List<String> keys, List<Integer> ids) {
+      String[] unsorted = keys.toArray(new String[0]);
+      Integer[] order = new Integer[unsorted.length];
+      int length = 0;
+      for (int i = 0; i < order.length; i++) {
+        order[i] = i;
+        length += unsorted[i].length();
+      }
+      Arrays.sort(order, (a, b) -> unsorted[a].compareTo(unsorted[b]));
+      chars = new char[length];
+      starts = new int[order.length + 1];
+      this.ids = new int[order.length];
+      for (int i = 0; i < order.length; i++) {
+        String key = unsorted[order[i]];
+        key.getChars(0, key.length(), chars, starts[i]);
+        starts[i + 1] = starts[i] + key.length();
+        this.ids[i] = ids.get(order[i]);
+      }
+    }
+
+    protected int size() {
+      return ids.length;
+    }
+
+    protected int length(int i) {
+      return starts[i + 1] - starts[i];
+    }
+
+    protected char charAt(int i, int position) {
+      return chars[starts[i] + position];
+    }
+
+    /**
+     * Checks whether a key starts with the provided text.
+     *
+     * @param i    the position of the key in the order
+     * @param text the start to check for
+     * @return true if the key starts with text, or false otherwise
+     */
+    protected boolean startsWith(int i, String text) {
+      if (length(i) < text.length()) {
+        return false;
+      }
+      for (int j = 0; j < text.length(); j++) {
+        if (charAt(i, j) != text.charAt(j)) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    /**
+     * Returns the first position in the order whose key is not less than the provided text.
+     *
+     * @param text the text to look up
+     * @return the position of the first key that is greater than or equal to text
+     */
+    protected int lowerBound(String text) {
+      int low = 0;
+      int high = size();
+      while (low < high) {
+        int middle = (low + high) >>> 1;
+        if (compareTo(middle, text) < 0) {
+          low = middle + 1;
+        } else {
+          high = middle;
+        }
+      }
+      return low;
+    }
+
+    // compares a key to text in the order of String.compareTo
+    private int compareTo(int i, String text) {
+      int length = Math.min(length(i), text.length());
+      for (int j = 0; j < length; j++) {
+        if (charAt(i, j) != text.charAt(j)) {
+          return charAt(i, j) - text.charAt(j);
+        }
+      }
+      return length(i) - text.length();
+    }
+  }
+
+  /**
+   * Builds the index over the provided names.
+   *
+   * @param locations the location names to index
+   */
+  public LocationIndex(List<String> locations) {
+    names = locations.toArray(new String[0]);
+    List<String> keys = new ArrayList<>();
+    List<Integer> ids = new ArrayList<>();
+    List<String> words = new ArrayList<>();
+    List<Integer> wordNames = new ArrayList<>();
+    for (int id = 0; id < names.length; id++) {
+      String key = normalize(names[id]);
+      keys.add(key);
+      ids.add(id);
+      for (int i = 1; i < key.length(); i++) {
+        if (key.charAt(i - 1) == ' ' && key.charAt(i) != ' ') {
+          words.add(key.substring(i));
+          wordNames.add(id);
+        }
+      }
+    }
+    nameKeys = new KeyArray(keys, ids);
+    wordKeys = new KeyArray(words, wordNames);
+  }
+
+  /**
+   * Returns the number of indexed names.
+   *
+   * @return the number of names
+   */
+  public int size() {
+    return names.length;
+  }
+
+  /**
+   * Returns the names that start with the provided text, ignoring case, in alphabetical order.
+   *
+   * @param text  the start of the names to find
+   * @param limit the largest number of names to return
+   * @return up to limit names that start with text
+   */
+  public List<String> prefixMatches(String text, int limit) {
+    Set<String> matches = new LinkedHashSet<>();
+    addPrefixMatches(nameKeys, normalize(text), limit, matches);
+    return new ArrayList<>(matches);
+  }
+
+  /**
+   * Suggests names for the provided text. Names that start with the text come first, then names
+   * with a later word that starts with it, and then names that start, or have a word that starts,
+   * with something one typo away from the text, or two for longer text. The first character is
+   * never taken for a typo.
+   *
+   * @param text  the partly typed or misspelled name
+   * @param limit the largest number of names to return
+   * @return up to limit suggested names, or an empty list if text is blank
+   */
+  public List<String> suggest(String text, int limit) {
+    String key = normalize(text);
+    Set<String> suggestions = new LinkedHashSet<>();
+    if (key.isEmpty() || limit <= 0) {
+      return new ArrayList<>();
+    }
+    addPrefixMatches(nameKeys, key, limit, suggestions);
+    addPrefixMatches(wordKeys, key, limit, suggestions);
+    // names with fewer typos are suggested first, and short text has too many close neighbors for
+    // a typo to be told apart from a different name
+    for (int typos = 1; typos <= key.length() / TYPO_LENGTH && typos <= 2; typos++) {
+      new TypoSearch(nameKeys, key, typos, limit, suggestions).run();
+      new TypoSearch(wordKeys, key, typos, limit, suggestions).run();
+    }
+    return new ArrayList<>(suggestions);
+  }
+
+  // adds the names of the keys that start with key, until there are limit names
+  private void addPrefixMatches(KeyArray keys, String key, int limit, Set<String> matches) {
+    for (int i = keys.lowerBound(key); i < keys.size() && matches.size() < limit
+        && keys.startsWith(i, key); i++) {
+      matches.add(names[keys.ids[i]]);
+    }
+  }
+
+  private static String normalize(String text) {
+    return text.trim().toLowerCase(Locale.ROOT);
+  }
+
+  /**
+   * A depth first walk over the implicit trie of a sorted key array, that finds the keys with a
+   * prefix at most a number of typos away from the typed text. A typo is an inserted, deleted or
+   * replaced character, or two swapped neighboring characters, after the first character.
+   */
+  private class TypoSearch {
+    KeyArray keys;
+    String key;
+    int typos;
+    int limit;
+    Set<String> matches;
+    // rows[d][j] is the number of typos between the trie prefix of length d and the first j
+    // characters of key
+    int[][] rows;
+    // the characters of the trie prefix being visited
+    char[] prefix;
+
+    TypoSearch(KeyArray keys, String key, int typos, int limit, Set<String> matches) {
+      this.keys = keys;
+      this.key = key;
+      this.typos = typos;
+      this.limit = limit;
+      this.matches = matches;
+      rows = new int[key.length() + typos + 1][key.length() + 1];
+      prefix = new char[rows.length];
+      for (int j = 0; j <= key.length(); j++) {
+        rows[0][j] = j;
+      }
+    }
+
+    void run() {
+      // the first character is rarely mistyped, and keeping it cuts the walk down to one subtree
+      char first = key.charAt(0);
+      int low = keys.lowerBound(String.valueOf(first));
+      int high = keys.lowerBound(String.valueOf((char) (first + 1)));
+      prefix[0] = first;
+      fillRow(1);
+      visit(low, high, 1);
+    }
+
+    // visits the range of keys that share the prefix of the provided length
+    private void visit(int low, int high, int depth) {
+      if (rows[depth][key.length()] <= typos) {
+        // every key in the range starts with a close enough prefix
+        for (int i = low; i < high && matches.size() < limit; i++) {
+          matches.add(names[keys.ids[i]]);
+        }
+        return;
+      }
+      if (depth + 1 == rows.length || min(rows[depth]) > typos) {
+        return;
+      }
+      // the keys equal to the prefix sort first and have no children
+      int i = endOfPrefix(low, high, depth);
+      while (i < high && matches.size() < limit) {
+        char c = keys.charAt(i, depth);
+        int end = endOfRun(i, high, depth, c);
+        prefix[depth] = c;
+        fillRow(depth + 1);
+        visit(i, end, depth + 1);
+        i = end;
+      }
+    }
+
+    // returns the first position after low whose key is longer than depth
+    private int endOfPrefix(int low, int high, int depth) {
+      return endOfRun(low, high, depth, -1);
+    }
+
+    // returns the first position after low whose key does not continue the prefix with c, or
+    // whose key is not equal to the prefix when c is -1
+    private int endOfRun(int low, int high, int depth, int c) {
+      // most runs are short, so gallop forward from their start before the binary search
+      int bound = low;
+      for (int step = 1; bound < high && inRun(bound, depth, c); step *= 2) {
+        low = bound + 1;
+        bound = low + step;
+      }
+      high = Math.min(bound, high);
+      while (low < high) {
+        int middle = (low + high) >>> 1;
+        if (inRun(middle, depth, c)) {
+          low = middle + 1;
+        } else {
+          high = middle;
+        }
+      }
+      return low;
+    }
+
+    private boolean inRun(int i, int depth, int c) {
+      return c == -1 ? keys.length(i) == depth : keys.charAt(i, depth) == c;
+    }
+
+    // computes the row of a prefix from the rows of its two shorter prefixes
+    private void fillRow(int depth) {
+      int[] previous = rows[depth - 1];
+      int[] row = rows[depth];
+      char c = prefix[depth - 1];
+      row[0] = depth;
+      for (int j = 1; j <= key.length(); j++) {
+        int replace = previous[j - 1] + (key.charAt(j - 1) == c ? 0 : 1);
+        row[j] = Math.min(replace, Math.min(previous[j], row[j - 1]) + 1);
+        if (depth > 1 && j > 1 && key.charAt(j - 1) == prefix[depth - 2]
+            && key.charAt(j - 2) == c) {
+          row[j] = Math.min(row[j], rows[depth - 2][j - 2] + 1);
+        }
+      }
+    }
+
+    private int min(int[] row) {
+      int min = row[0];
+      for (int value : row) {
+        min = Math.min(min, value);
+      }
+      return min;
+    }
+  }
+
+}
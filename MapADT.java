@@ -32,6 +32,19 @@ public interface MapADT<KeyType, ValueType> {
      */
     public ValueType get(KeyType key) throws NoSuchElementException;
 
+    /**
+     * Retrieves the value that a key maps to, or a default value if the key
+     * is not stored. This saves callers from checking containsKey before
+     * calling get, which looks the key up twice.
+     * @param key the key to look up
+     * @param defaultValue the value to return when key is not stored in this
+     *        collection
+     * @return the value that key maps to, or defaultValue
+     */
+    public default ValueType getOrDefault(KeyType key, ValueType defaultValue) {
+        return containsKey(key) ? get(key) : defaultValue;
+    }
+
     /**
      * Remove the mapping for a key from this collection.
      * @param key the key whose mapping to remove
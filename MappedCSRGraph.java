@@ -0,0 +1,279 @@
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * This MappedCSRGraph class is a CSRGraph whose nodes and edges are read
+ * directly from a memory-mapped binary graph file. Opening a graph only maps
+ * the file, so startup takes the same short time for any size of graph, and
+ * processes that open the same file share its pages through the operating
+ * system's page cache.
+ *
+ * A graph file stores, in big-endian order:
+ * <pre>
+ *   int    FILE_MAGIC
+ *   int    node count n
+ *   int    edge count m
+ *   int    byte length of the name data
+ *   int[]  n+1 edge offsets, as in CSRGraph
+ *   int[]  m edge targets
+ *   int    padding, when needed so that the weights start at a multiple of 8
+ *   double[] m edge weights
+ *   int[]  n+1 offsets of each node's name within the name data
+ *   int[]  n node ids, sorted by the names of their nodes
+ *   byte[] the UTF-8 encoded names of all nodes, in id order
+ * </pre>
+ * Names are looked up by binary search over the sorted ids, so no table of
+ * names needs to be built in memory. The whole file is mapped at once, which
+ * limits it to 2GB.
+ */
+public class MappedCSRGraph extends CSRGraph<String> {
+
+    // identifies graph files written by write
+    protected static final int FILE_MAGIC = 0x43535231;
+    protected static final int HEADER_BYTES = 16;
+
+    // the mapped file, and the parts of it that hold the names
+    protected ByteBuffer file;
+    protected IntBuffer nameOffsets;
+    protected IntBuffer sortedIds;
+    protected int namesStart;
+
+    private MappedCSRGraph(ByteBuffer file, int nodeCount, int edgeCount) {
+        super(file.slice(HEADER_BYTES, (nodeCount + 1) * Integer.BYTES).asIntBuffer(),
+                file.slice(targetsStart(nodeCount), edgeCount * Integer.BYTES).asIntBuffer(),
+                file.slice(weightsStart(nodeCount, edgeCount), edgeCount * Double.BYTES)
+                        .asDoubleBuffer());
+        this.file = file;
+        int nameOffsetsStart = weightsStart(nodeCount, edgeCount) + edgeCount * Double.BYTES;
+        this.nameOffsets = file.slice(nameOffsetsStart, (nodeCount + 1) * Integer.BYTES)
+                .asIntBuffer();
+        int sortedIdsStart = nameOffsetsStart + (nodeCount + 1) * Integer.BYTES;
+        this.sortedIds = file.slice(sortedIdsStart, nodeCount * Integer.BYTES).asIntBuffer();
+        this.namesStart = sortedIdsStart + nodeCount * Integer.BYTES;
+    }
+
+    private static int targetsStart(int nodeCount) {
+        return HEADER_BYTES + (nodeCount + 1) * Integer.BYTES;
+    }
+
+    private static int weightsStart(int nodeCount, int edgeCount) {
+        int end = targetsStart(nodeCount) + edgeCount * Integer.BYTES;
+        return (end + 7) & ~7;
+    }
+
+    /**
+     * Maps a graph file written by write into memory.
+     *
+     * @param filename the path of the graph file
+     * @return the MappedCSRGraph backed by that file
+     * @throws IOException if the file cannot be read or is not a graph file
+     */
+    public static MappedCSRGraph load(String filename) throws IOException {
+        try (RandomAccessFile input = new RandomAccessFile(filename, "r");
+                FileChannel channel = input.getChannel()) {
+            if (channel.size() < HEADER_BYTES || channel.size() > Integer.MAX_VALUE)
+                throw new IOException(filename + " is not a graph file");
+            // a mapping stays valid after its channel is closed
+            MappedByteBuffer file = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            int nodeCount = file.getInt(4);
+            int edgeCount = file.getInt(8);
+            int nameBytes = file.getInt(12);
+            // compute the expected size in longs, so that corrupt counts cannot overflow it
+            long size = HEADER_BYTES + (nodeCount + 1L + edgeCount) * Integer.BYTES;
+            size = (size + 7) / 8 * 8 + (long) edgeCount * Double.BYTES
+                    + (2L * nodeCount + 1) * Integer.BYTES + nameBytes;
+            if (file.getInt(0) != FILE_MAGIC || nodeCount < 0 || edgeCount < 0 || nameBytes < 0
+                    || size != channel.size())
+                throw new IOException(filename + " is not a graph file");
+            return new MappedCSRGraph(file, nodeCount, edgeCount);
+        }
+    }
+
+    /**
+     * Checks whether a file starts like a graph file written by write.
+     *
+     * @param filename the path of the file to check
+     * @return true if the file starts with the graph file magic number, or
+     *         false otherwise
+     * @throws IOException if the file cannot be read
+     */
+    public static boolean isGraphFile(String filename) throws IOException {
+        try (RandomAccessFile input = new RandomAccessFile(filename, "r")) {
+            return input.length() >= HEADER_BYTES && input.readInt() == FILE_MAGIC;
+        }
+    }
+
+    /**
+     * Writes a graph file with the nodes and edges of a snapshot. Each node
+     * is stored by the String returned from its data's toString method.
+     *
+     * @param graph    the snapshot to write
+     * @param filename the path of the file to write
+     * @throws IOException if the file could not be written
+     */
+    public static void write(CSRGraph<?> graph, String filename) throws IOException {
+        int nodeCount = graph.getNodeCount();
+        int edgeCount = graph.getEdgeCount();
+        byte[][] names = new byte[nodeCount][];
+        String[] strings = new String[nodeCount];
+        int nameBytes = 0;
+        for (int id = 0; id < nodeCount; id++) {
+            strings[id] = graph.getData(id).toString();
+            names[id] = strings[id].getBytes(StandardCharsets.UTF_8);
+            nameBytes += names[id].length;
+        }
+        Integer[] sorted = new Integer[nodeCount];
+        for (int id = 0; id < nodeCount; id++)
+            sorted[id] = id;
+        Arrays.sort(sorted, Comparator.comparing((Integer id) -> strings[id]));
+
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(new FileOutputStream(filename)))) {
+            out.writeInt(FILE_MAGIC);
+            out.writeInt(nodeCount);
+            out.writeInt(edgeCount);
+            out.writeInt(nameBytes);
+            int slot = 0;
+            for (int id = 0; id < nodeCount; id++) {
+                out.writeInt(slot);
+                slot += graph.edgesEnd(id) - graph.edgesStart(id);
+            }
+            out.writeInt(slot);
+            for (int id = 0; id < nodeCount; id++)
+                for (int edge = graph.edgesStart(id); edge < graph.edgesEnd(id); edge++)
+                    out.writeInt(graph.edgeTarget(edge));
+            if ((targetsStart(nodeCount) + edgeCount * Integer.BYTES) % 8 != 0)
+                out.writeInt(0);
+            for (int id = 0; id < nodeCount; id++)
+                for (int edge = graph.edgesStart(id); edge < graph.edgesEnd(id); edge++)
+                    out.writeDouble(graph.edgeWeight(edge));
+            int offset = 0;
+            for (int id = 0; id < nodeCount; id++) {
+                out.writeInt(offset);
+                offset += names[id].length;
+            }
+            out.writeInt(offset);
+            for (int id : sorted)
+                out.writeInt(id);
+            for (byte[] name : names)
+                out.write(name);
+        }
+    }
+
+    /**
+     * Writes a graph file with the nodes and edges of a BaseGraph.
+     *
+     * @param graph    the graph to write
+     * @param filename the path of the file to write
+     * @throws IOException if the file could not be written
+     */
+    public static void write(BaseGraph<?, ?> graph, String filename) throws IOException {
+        write(graph.freeze(), filename);
+    }
+
+    /**
+     * Converts a DOT file into a graph file.
+     *
+     * @param dotFilename   the path of the DOT file to read
+     * @param graphFilename the path of the graph file to write
+     * @throws IOException if the DOT file could not be read or parsed, or the
+     *                     graph file could not be written
+     */
+    public static void convertDot(String dotFilename, String graphFilename) throws IOException {
+        DijkstraGraph<String, Double> graph = new DijkstraGraph<>();
+        // the backend parses large files in parallel and builds the graph in bulk
+        new Backend(graph).loadGraphData(dotFilename);
+        write(graph, graphFilename);
+    }
+
+    /**
+     * Returns the name of the node with the provided id, decoded from the
+     * mapped name data.
+     *
+     * @param id the id of the node
+     * @return the name stored in that node
+     */
+    public String getData(int id) {
+        int start = nameOffsets.get(id);
+        byte[] name = new byte[nameOffsets.get(id + 1) - start];
+        file.get(namesStart + start, name);
+        return new String(name, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Returns the id of the node with the provided name, found by binary
+     * search over the ids sorted by name.
+     *
+     * @param data the name to look up
+     * @return the id of that node
+     * @throws NoSuchElementException if no node has this name
+     */
+    public int getId(String data) {
+        int id = findId(data);
+        if (id == -1)
+            throw new NoSuchElementException(data + " is not in this graph");
+        return id;
+    }
+
+    /**
+     * Check whether the graph contains a node with the provided name.
+     *
+     * @param data the name to check for
+     * @return true if a node has this name, or false otherwise
+     */
+    public boolean containsNode(String data) {
+        return findId(data) != -1;
+    }
+
+    // returns the id of the node named data, or -1 when there is none
+    private int findId(String data) {
+        if (data == null)
+            return -1;
+        int low = 0;
+        int high = getNodeCount() - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int id = sortedIds.get(middle);
+            int comparison = getData(id).compareTo(data);
+            if (comparison == 0)
+                return id;
+            if (comparison < 0)
+                low = middle + 1;
+            else
+                high = middle - 1;
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the names of all nodes in id order. Names are decoded from the
+     * mapped file when they are read from the returned list.
+     *
+     * @return an unmodifiable list view of the node names
+     */
+    public List<String> getNames() {
+        return new AbstractList<String>() {
+            public String get(int id) {
+                return getData(id);
+            }
+
+            public int size() {
+                return getNodeCount();
+            }
+        };
+    }
+
+}
@@ -0,0 +1,46 @@
+import java.lang.ref.WeakReference;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * A NamePool hands out one shared String instance for every distinct location name, so that
+ * backends loading graphs with the same locations keep only one copy of each name in memory. The
+ * pool only holds its names weakly: once no graph uses a name any more, for example after the
+ * graphs with that location were unloaded, the name is released by the garbage collector and
+ * disappears from the pool.
+ *
+ * A pool may be shared by backends loading graph data on several threads at once.
+ */
+public class NamePool {
+
+  // each name maps to a weak reference to itself, since a strong value would keep its key alive
+  private final Map<String, WeakReference<String>> names = new WeakHashMap<>();
+
+  /**
+   * Returns the pooled instance of a name, adding the provided instance to the pool if the name
+   * is not pooled yet.
+   *
+   * @param name the name of a location
+   * @return a String equal to name, which is the same instance for every equal name
+   */
+  public synchronized String intern(String name) {
+    WeakReference<String> pooled = names.get(name);
+    String shared = pooled == null ? null : pooled.get();
+    if (shared == null) {
+      names.put(name, new WeakReference<>(name));
+      shared = name;
+    }
+    return shared;
+  }
+
+  /**
+   * Returns the number of names in the pool. Names that are no longer used by any graph may be
+   * counted until the garbage collector has released them.
+   *
+   * @return the number of pooled names
+   */
+  public synchronized int size() {
+    return names.size();
+  }
+
+}
@@ -0,0 +1,201 @@
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * Implements MapADT with a hash table that uses open addressing and linear
+ * probing. Keys and values are stored in two parallel arrays instead of in
+ * one entry object per mapping, so a lookup reads a run of neighbouring
+ * array slots and allocates nothing. Every operation walks its key's probe
+ * run once: put does not look the key up before inserting it, and get and
+ * remove do not check containsKey first.
+ *
+ * Removed keys leave no tombstones behind. The keys after a removed one in
+ * its probe run are shifted back into the gap instead, so lookups never
+ * slow down after many removals.
+ */
+public class OpenAddressingMap<KeyType, ValueType> implements MapADT<KeyType, ValueType> {
+
+    // the capacity of a map that was not given an expected size
+    protected static final int DEFAULT_CAPACITY = 16;
+    // the largest fraction of slots in use before the table grows, which
+    // keeps probe runs short with linear probing
+    protected static final double LOAD_FACTOR = 0.7;
+
+    // the key and value of each slot, or null keys for empty slots
+    protected Object[] keys;
+    protected Object[] values;
+    protected int size = 0;
+    // the number of keys the table holds before it grows
+    protected int threshold;
+    // the number of bits to shift a spread hash right by to get a slot index
+    protected int shift;
+
+    /**
+     * Creates an empty map with the default capacity.
+     */
+    public OpenAddressingMap() {
+        this(0);
+    }
+
+    /**
+     * Creates an empty map that holds the provided number of keys without
+     * growing its table.
+     *
+     * @param expectedSize the number of keys the map is expected to hold
+     * @throws IllegalArgumentException if expectedSize is negative
+     */
+    public OpenAddressingMap(int expectedSize) {
+        if (expectedSize < 0)
+            throw new IllegalArgumentException("expected size " + expectedSize + " is negative");
+        int capacity = DEFAULT_CAPACITY;
+        while (capacity * LOAD_FACTOR < expectedSize)
+            capacity *= 2;
+        allocate(capacity);
+    }
+
+    @Override
+    public void put(KeyType key, ValueType value) throws IllegalArgumentException {
+        if (key == null)
+            throw new NullPointerException("null keys not allowed");
+        if (size >= threshold)
+            resize(keys.length * 2);
+        int mask = keys.length - 1;
+        int slot = slot(key);
+        for (Object stored = keys[slot]; stored != null; stored = keys[slot]) {
+            if (stored.equals(key))
+                throw new IllegalArgumentException(
+                        "key " + key.toString() + " already present in map");
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        size++;
+    }
+
+    @Override
+    public boolean containsKey(KeyType key) {
+        return find(key) >= 0;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public ValueType get(KeyType key) throws NoSuchElementException {
+        int slot = find(key);
+        if (slot < 0)
+            throw new NoSuchElementException("key " + key.toString() + " not in map");
+        return (ValueType) values[slot];
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public ValueType getOrDefault(KeyType key, ValueType defaultValue) {
+        int slot = find(key);
+        return slot < 0 ? defaultValue : (ValueType) values[slot];
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public ValueType remove(KeyType key) throws NoSuchElementException {
+        int slot = find(key);
+        if (slot < 0)
+            throw new NoSuchElementException("key " + key.toString() + " not in map");
+        ValueType value = (ValueType) values[slot];
+        int mask = keys.length - 1;
+        int gap = slot;
+        // move each later key of the probe run into the gap, unless the gap
+        // lies before its home slot, where lookups for it would not start
+        for (int next = (gap + 1) & mask; keys[next] != null; next = (next + 1) & mask) {
+            int home = slot(keys[next]);
+            if (((next - home) & mask) >= ((next - gap) & mask)) {
+                keys[gap] = keys[next];
+                values[gap] = values[next];
+                gap = next;
+            }
+        }
+        keys[gap] = null;
+        values[gap] = null;
+        size--;
+        return value;
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(keys, null);
+        Arrays.fill(values, null);
+        size = 0;
+    }
+
+    @Override
+    public int getSize() {
+        return size;
+    }
+
+    @Override
+    public int getCapacity() {
+        return keys.length;
+    }
+
+    /**
+     * Finds the slot that holds the provided key.
+     *
+     * @param key the key to look up
+     * @return the index of the key's slot, or -1 if the key is not stored
+     * @throws NullPointerException if key is null
+     */
+    protected int find(Object key) {
+        if (key == null)
+            throw new NullPointerException("null keys not allowed");
+        int mask = keys.length - 1;
+        int slot = slot(key);
+        for (Object stored = keys[slot]; stored != null; stored = keys[slot]) {
+            if (stored == key || stored.equals(key))
+                return slot;
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the home slot of a key, where its probe run starts. The hash
+     * code is multiplied by the golden ratio before its top bits are taken,
+     * so keys with consecutive hash codes, such as small Integers, are
+     * spread over the table instead of filling one run.
+     *
+     * @param key the key to find the home slot of
+     * @return the index of the first slot to look for the key in
+     */
+    protected int slot(Object key) {
+        return (key.hashCode() * 0x9E3779B9) >>> shift;
+    }
+
+    /**
+     * Replaces the table with a larger one, and inserts every key again.
+     *
+     * @param capacity the new number of slots, which is a power of two
+     */
+    protected void resize(int capacity) {
+        Object[] oldKeys = keys;
+        Object[] oldValues = values;
+        allocate(capacity);
+        int mask = capacity - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] == null)
+                continue;
+            // keys are known to be distinct, so only empty slots are looked for
+            int slot = slot(oldKeys[i]);
+            while (keys[slot] != null)
+                slot = (slot + 1) & mask;
+            keys[slot] = oldKeys[i];
+            values[slot] = oldValues[i];
+        }
+    }
+
+    // creates empty arrays with the provided power of two number of slots
+    private void allocate(int capacity) {
+        keys = new Object[capacity];
+        values = new Object[capacity];
+        threshold = (int) (capacity * LOAD_FACTOR);
+        shift = Integer.numberOfLeadingZeros(capacity - 1);
+    }
+
+}
@@ -0,0 +1,290 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * A ParallelDotLoader parses a large DOT file on several threads. The file is split into byte
+ * ranges that each end on a line boundary, every range is read and parsed by a DotParser on its
+ * own thread, and the statements of all ranges are returned in file order so that the caller can
+ * build its graph in one bulk step per range.
+ */
+public class ParallelDotLoader {
+
+  // ranges smaller than this are not worth a thread of their own
+  protected static final long MIN_RANGE_BYTES = 1 << 20;
+  // more ranges than threads keep every thread busy when some ranges parse slower than others
+  protected static final int RANGES_PER_THREAD = 4;
+  // each range is read into a single array, so it must stay well below 2GB
+  protected static final long MAX_RANGE_BYTES = 1 << 30;
+
+  /**
+   * The statements parsed from one byte range of a DOT file, in the order they appear. Edge i
+   * leaves getPred(i) and enters getSucc(i). The lists of all preds, succs and weights can be
+   * passed to BaseGraph.insertEdges as they are, without copying them.
+   */
+  public static class Statements implements DotParser.Handler {
+    protected List<String> preds = new ArrayList<>();
+    protected List<String> succs = new ArrayList<>();
+    protected double[] seconds = new double[16];
+    // the names of node statements, and the number of edges before each of them
+    protected List<String> nodes = new ArrayList<>();
+    protected int[] nodePositions = new int[4];
+
+    public void node(String name) {
+      if (nodes.size() == nodePositions.length) {
+        nodePositions = Arrays.copyOf(nodePositions, nodePositions.length * 2);
+      }
+      nodePositions[nodes.size()] = preds.size();
+      nodes.add(name);
+    }
+
+    public void edge(String pred, String succ, double weight) {
+      if (preds.size() == seconds.length) {
+        seconds = Arrays.copyOf(seconds, seconds.length * 2);
+      }
+      seconds[preds.size()] = weight;
+      preds.add(pred);
+      succs.add(succ);
+    }
+
+    /**
+     * Returns the number of edge statements.
+     *
+     * @return the number of edge statements in this range
+     */
+    public int size() {
+      return preds.size();
+    }
+
+    /**
+     * Returns the node an edge statement leaves.
+     *
+     * @param i the index of the edge statement
+     * @return the name of that node
+     */
+    public String getPred(int i) {
+      return preds.get(i);
+    }
+
+    /**
+     * Returns the node an edge statement enters.
+     *
+     * @param i the index of the edge statement
+     * @return the name of that node
+     */
+    public String getSucc(int i) {
+      return succs.get(i);
+    }
+
+    /**
+     * Returns the seconds attribute of an edge statement.
+     *
+     * @param i the index of the edge statement
+     * @return the weight of that edge
+     */
+    public double getSeconds(int i) {
+      return seconds[i];
+    }
+
+    /**
+     * Returns the nodes every edge statement leaves, in order.
+     *
+     * @return an unmodifiable list view of the pred of each edge
+     */
+    public List<String> getPreds() {
+      return Collections.unmodifiableList(preds);
+    }
+
+    /**
+     * Returns the nodes every edge statement enters, in order.
+     *
+     * @return an unmodifiable list view of the succ of each edge
+     */
+    public List<String> getSuccs() {
+      return Collections.unmodifiableList(succs);
+    }
+
+    /**
+     * Returns the seconds attribute of every edge statement, in order. Each weight is boxed when
+     * it is read from the returned list, so the weights are only stored once.
+     *
+     * @return an unmodifiable list view of the weight of each edge
+     */
+    public List<Double> getWeights() {
+      return new AbstractList<Double>() {
+        public Double get(int i) {
+          return seconds[i];
+        }
+
+        public int size() {
+          return preds.size();
+        }
+      };
+    }
+
+    /**
+     * Returns the number of node statements.
+     *
+     * @return the number of node statements in this range
+     */
+    public int getNodeCount() {
+      return nodes.size();
+    }
+
+    /**
+     * Returns the node of a node statement.
+     *
+     * @param j the index of the node statement
+     * @return the name of that node
+     */
+    public String getNode(int j) {
+      return nodes.get(j);
+    }
+
+    /**
+     * Returns where a node statement appears among the edge statements.
+     *
+     * @param j the index of the node statement
+     * @return the number of edge statements before that node statement
+     */
+    public int getNodePosition(int j) {
+      return nodePositions[j];
+    }
+  }
+
+  protected int threads;
+
+  /**
+   * Creates a loader that uses one thread for each available processor.
+   */
+  public ParallelDotLoader() {
+    this(Runtime.getRuntime().availableProcessors());
+  }
+
+  /**
+   * Creates a loader that uses the provided number of threads.
+   *
+   * @param threads the number of ranges to parse at the same time
+   * @throws IllegalArgumentException if threads is less than 1
+   */
+  public ParallelDotLoader(int threads) {
+    if (threads < 1) {
+      throw new IllegalArgumentException("at least one thread is needed");
+    }
+    this.threads = threads;
+  }
+
+  /**
+   * Parses the DOT file with the provided name.
+   *
+   * @param filename the path to a dot file
+   * @return the statements of each byte range of the file, in file order
+   * @throws IOException if the file cannot be read or is not valid DOT
+   */
+  public List<Statements> load(String filename) throws IOException {
+    try (RandomAccessFile file = new RandomAccessFile(filename, "r");
+        FileChannel channel = file.getChannel()) {
+      long[] bounds = split(channel);
+      List<Callable<Statements>> tasks = new ArrayList<>();
+      for (int i = 0; i + 1 < bounds.length; i++) {
+        long start = bounds[i];
+        long end = bounds[i + 1];
+        tasks.add(() -> parseRange(channel, start, end));
+      }
+
+      ExecutorService pool = Executors.newFixedThreadPool(Math.min(threads, tasks.size()));
+      try {
+        List<Statements> ranges = new ArrayList<>();
+        for (Future<Statements> range : pool.invokeAll(tasks)) {
+          ranges.add(range.get());
+        }
+        return ranges;
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new IOException("interrupted while loading " + filename, e);
+      } catch (ExecutionException e) {
+        if (e.getCause() instanceof IOException) {
+          throw new IOException(filename + ": " + e.getCause().getMessage(), e.getCause());
+        }
+        throw new IOException("could not load " + filename, e.getCause());
+      } finally {
+        pool.shutdownNow();
+      }
+    }
+  }
+
+  /**
+   * Splits a file into byte ranges that each start at the beginning of a line.
+   *
+   * @param channel the file to split
+   * @return the start of every range followed by the size of the file
+   * @throws IOException if the file cannot be read
+   */
+  protected long[] split(FileChannel channel) throws IOException {
+    long size = channel.size();
+    long ranges = Math.max(1, Math.min((long) threads * RANGES_PER_THREAD,
+        size / MIN_RANGE_BYTES));
+    ranges = Math.max(ranges, (size + MAX_RANGE_BYTES - 1) / MAX_RANGE_BYTES);
+    long[] bounds = new long[(int) ranges + 1];
+    bounds[(int) ranges] = size;
+    ByteBuffer buffer = ByteBuffer.allocate(4096);
+    for (int i = 1; i < ranges; i++) {
+      // move each boundary forward to just after the next line break
+      long position = Math.max(bounds[i - 1], size * i / ranges);
+      boolean found = false;
+      while (!found && position < size) {
+        buffer.clear();
+        int read = channel.read(buffer, position);
+        for (int j = 0; j < read && !found; j++) {
+          position++;
+          found = buffer.get(j) == '\n';
+        }
+      }
+      bounds[i] = position;
+    }
+    return bounds;
+  }
+
+  /**
+   * Reads and parses the lines between two byte positions of a file. The positions must be at
+   * line boundaries, so no line or multi-byte character is split between ranges.
+   *
+   * @param channel the file to read
+   * @param start   the position of the first byte of the range
+   * @param end     the position after the last byte of the range
+   * @return the statements in this range
+   * @throws IOException if the range cannot be read or is not valid DOT
+   */
+  protected Statements parseRange(FileChannel channel, long start, long end) throws IOException {
+    ByteBuffer bytes = ByteBuffer.allocate((int) (end - start));
+    while (bytes.hasRemaining()) {
+      // positional reads do not move the channel, so ranges can be read at the same time
+      if (channel.read(bytes, start + bytes.position()) < 0) {
+        throw new IOException("file ended before byte " + end);
+      }
+    }
+    String text = new String(bytes.array(), StandardCharsets.UTF_8);
+    Statements statements = new Statements();
+    try {
+      new DotParser(statements).parse(new BufferedReader(new StringReader(text)));
+    } catch (IOException e) {
+      throw new IOException("range starting at byte " + start + ", " + e.getMessage(), e);
+    }
+    return statements;
+  }
+
+}
@@ -0,0 +1,123 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * A PathResult stores everything a single shortest path search found out about the path between
+ * two nodes: the nodes along the path, the weight of each edge on it, and the cost of the path from
+ * its start up to each of its nodes. Callers that need walking times along a route should read
+ * them from a PathResult instead of searching again for every leg.
+ *
+ * @param NodeType is the data type stored at each graph node
+ */
+public class PathResult<NodeType> {
+
+  protected List<NodeType> nodes;
+  // legCosts.get(i) is the weight of the edge from nodes.get(i) to nodes.get(i+1)
+  protected List<Double> legCosts;
+  // cumulativeCosts.get(i) is the cost of the path from the start through nodes.get(i)
+  protected List<Double> cumulativeCosts;
+
+  /**
+   * Creates the result of a path whose cumulative costs have already been computed.
+   *
+   * @param nodes           the nodes along the path, from start to end
+   * @param legCosts        the weight of each edge along the path, one fewer than the nodes
+   * @param cumulativeCosts the cost of the path up to each node, starting with 0
+   * @throws IllegalArgumentException if the lists do not fit the number of nodes
+   */
+  public PathResult(List<NodeType> nodes, List<Double> legCosts, List<Double> cumulativeCosts) {
+    if (nodes.isEmpty() ? !legCosts.isEmpty() : legCosts.size() != nodes.size() - 1)
+      throw new IllegalArgumentException("a path needs one leg cost between each pair of nodes");
+    if (cumulativeCosts.size() != nodes.size())
+      throw new IllegalArgumentException("a path needs one cumulative cost for each node");
+    this.nodes = Collections.unmodifiableList(new ArrayList<>(nodes));
+    this.legCosts = Collections.unmodifiableList(new ArrayList<>(legCosts));
+    this.cumulativeCosts = Collections.unmodifiableList(new ArrayList<>(cumulativeCosts));
+  }
+
+  /**
+   * Creates the result of a path, summing its leg costs from the start to find the cumulative
+   * cost at each node.
+   *
+   * @param nodes    the nodes along the path, from start to end
+   * @param legCosts the weight of each edge along the path, one fewer than the nodes
+   * @throws IllegalArgumentException if there is not one leg cost between each pair of nodes
+   */
+  public PathResult(List<NodeType> nodes, List<Double> legCosts) {
+    this(nodes, legCosts, sum(nodes, legCosts));
+  }
+
+  /**
+   * Returns the result used when there is no path between two nodes.
+   *
+   * @return a PathResult without any nodes
+   */
+  public static <NodeType> PathResult<NodeType> empty() {
+    return new PathResult<>(new ArrayList<NodeType>(), new ArrayList<Double>());
+  }
+
+  // sums the leg costs in order along the path, which is how a forward search adds them up
+  private static List<Double> sum(List<?> nodes, List<Double> legCosts) {
+    List<Double> cumulativeCosts = new ArrayList<>();
+    if (nodes.isEmpty())
+      return cumulativeCosts;
+    double cost = 0;
+    cumulativeCosts.add(cost);
+    for (double legCost : legCosts) {
+      cost += legCost;
+      cumulativeCosts.add(cost);
+    }
+    return cumulativeCosts;
+  }
+
+  /**
+   * Checks whether this result is missing a path, because there was no path between its nodes.
+   *
+   * @return true if there are no nodes in this result, or false otherwise
+   */
+  public boolean isEmpty() {
+    return nodes.isEmpty();
+  }
+
+  /**
+   * Returns the nodes along the path, starting with the start node and ending with the end node.
+   *
+   * @return an unmodifiable list of the nodes along the path, or an empty list if there is no path
+   */
+  public List<NodeType> getNodes() {
+    return nodes;
+  }
+
+  /**
+   * Returns the weight of each edge along the path, in order from the start.
+   *
+   * @return an unmodifiable list with one fewer entry than getNodes()
+   */
+  public List<Double> getLegCosts() {
+    return legCosts;
+  }
+
+  /**
+   * Returns the cost of the path from the start up to each node along it.
+   *
+   * @return an unmodifiable list with one entry for each node, starting with 0
+   */
+  public List<Double> getCumulativeCosts() {
+    return cumulativeCosts;
+  }
+
+  /**
+   * Returns the cost of the whole path.
+   *
+   * @return the cost of the path from its start to its end
+   * @throws NoSuchElementException if there is no path
+   */
+  public double getTotalCost() {
+    if (nodes.isEmpty())
+      throw new NoSuchElementException("There is no path");
+    return cumulativeCosts.get(cumulativeCosts.size() - 1);
+  }
+
+}
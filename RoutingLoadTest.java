@@ -0,0 +1,122 @@
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A RoutingLoadTest starts a RoutingServer on a free local port and sends it requests from
+ * several clients at once, each sending its next request as soon as the last one is answered. It
+ * then reports the requests answered per second and the latency percentiles. Half of the requests
+ * ask for the travel times between two random locations, and the other half for the locations
+ * reachable within a random time.
+ */
+public class RoutingLoadTest {
+
+  /**
+   * Runs the load test.
+   *
+   * @param args the graph file to serve, the number of clients and the number of requests sent by
+   *             each client, which default to campus.dot, 32 and 500
+   * @throws Exception if the graph could not be loaded or a request failed
+   */
+  public static void main(String[] args) throws Exception {
+    String filename = args.length > 0 ? args[0] : "campus.dot";
+    int clients = args.length > 1 ? Integer.parseInt(args[1]) : 32;
+    int requests = args.length > 2 ? Integer.parseInt(args[2]) : 500;
+    // measure the server the way RoutingServer.main runs it, with TCP_NODELAY on its connections
+    if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+      System.setProperty("sun.net.httpserver.nodelay", "true");
+    }
+
+    Backend backend = new Backend(new ConcurrentGraph<String>());
+    backend.loadGraphData(filename);
+    List<String> locations = new ArrayList<>(backend.getListOfAllLocations());
+    RoutingServer server = new RoutingServer(backend, 0);
+    server.start();
+    String base = "http://localhost:" + server.getPort();
+
+    HttpClient client = HttpClient.newHttpClient();
+    ExecutorService pool = Executors.newFixedThreadPool(clients);
+    long[] latencies = new long[clients * requests];
+    AtomicInteger failures = new AtomicInteger();
+    try {
+      // one round first, so the measured requests do not include class loading and compiling
+      send(client, base, locations, new Random(0), Math.min(requests, 200), null, failures);
+      failures.set(0);
+
+      List<Future<?>> running = new ArrayList<>();
+      long begin = System.nanoTime();
+      for (int c = 0; c < clients; c++) {
+        int first = c * requests;
+        Random random = new Random(c + 1);
+        running.add(pool.submit(() -> {
+          long[] own = new long[requests];
+          send(client, base, locations, random, requests, own, failures);
+          System.arraycopy(own, 0, latencies, first, requests);
+          return null;
+        }));
+      }
+      for (Future<?> result : running) {
+        result.get();
+      }
+      double seconds = (System.nanoTime() - begin) / 1e9;
+
+      Arrays.sort(latencies);
+      System.out.printf("%d clients, %d requests in %.2f s: %.0f requests per second%n", clients,
+          latencies.length, seconds, latencies.length / seconds);
+      System.out.printf("latency p50 %.2f ms, p90 %.2f ms, p99 %.2f ms, max %.2f ms%n",
+          percentile(latencies, 0.50), percentile(latencies, 0.90),
+          percentile(latencies, 0.99), latencies[latencies.length - 1] / 1e6);
+      System.out.println(failures.get() + " requests failed");
+    } finally {
+      pool.shutdownNow();
+      server.stop(0);
+    }
+  }
+
+  // sends requests one after another, recording the latency of each in nanoseconds when asked
+  private static Void send(HttpClient client, String base, List<String> locations,
+      Random random, int requests, long[] latencies, AtomicInteger failures)
+      throws IOException, InterruptedException {
+    for (int i = 0; i < requests; i++) {
+      String start = encode(locations.get(random.nextInt(locations.size())));
+      String query = i % 2 == 0
+          ? "/travel-times?start=" + start + "&end="
+              + encode(locations.get(random.nextInt(locations.size())))
+          : "/reachable?start=" + start + "&seconds=" + random.nextInt(600);
+      HttpRequest request = HttpRequest.newBuilder(URI.create(base + query)).build();
+      long sent = System.nanoTime();
+      HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+      if (latencies != null) {
+        latencies[i] = System.nanoTime() - sent;
+      }
+      // locations without a path or an edge leaving them are answered with 404
+      if (response.statusCode() != 200 && response.statusCode() != 404) {
+        failures.incrementAndGet();
+      }
+    }
+    return null;
+  }
+
+  private static String encode(String location) {
+    return URLEncoder.encode(location, StandardCharsets.UTF_8);
+  }
+
+  // returns the latency below which the provided fraction of the sorted latencies fall, in ms
+  private static double percentile(long[] sorted, double fraction) {
+    int index = (int) Math.ceil(fraction * sorted.length) - 1;
+    return sorted[Math.max(0, index)] / 1e6;
+  }
+
+}
@@ -0,0 +1,351 @@
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * A RoutingServer answers the queries of one shared backend over HTTP, without a user interface.
+ * Every request is handled on a thread of its own from AsyncBackend.newQueryExecutor(), and every
+ * response is written as JSON straight to the connection while it is produced, instead of being
+ * built up as one string first. The server answers GET requests on these paths:
+ *
+ * <pre>
+ *   /locations                              all location names
+ *   /path?start=A&end=B                     the locations along the shortest path from A to B
+ *   /travel-times?start=A&end=B             that path with the walking time of each leg
+ *   /reachable?start=A&seconds=T            the locations within T seconds of A
+ * </pre>
+ *
+ * A server can also answer the queries of every graph in a GraphRegistry. Each query then names
+ * the graph it asks about with a graph parameter, such as /path?graph=campus&start=A&end=B, and
+ * /graphs lists the names of the loaded graphs. Graphs may be loaded into and unloaded from the
+ * registry while the server runs.
+ *
+ * Bad requests are answered with status 400, and paths or start locations that cannot be found
+ * with status 404, both with an object whose error member says what went wrong. Every search has a
+ * deadline, and a search that passes it is stopped and answered with status 503, so that a few
+ * queries between disconnected locations of a large graph cannot keep every thread busy.
+ */
+public class RoutingServer {
+
+  // the time a request may search for, unless changed with setQueryTimeout
+  protected static final long QUERY_MILLIS = 10_000;
+
+  protected BackendInterface backend;
+  // the graphs requests choose from with their graph parameter, or null if there is one backend
+  protected GraphRegistry registry = null;
+  protected HttpServer server;
+  protected ExecutorService executor;
+  protected long queryMillis = QUERY_MILLIS;
+
+  /**
+   * Creates a server for the provided backend. It does not accept requests until it is started.
+   *
+   * @param backend the backend that answers all requests
+   * @param port    the port to listen on, or 0 for any free port
+   * @throws IOException if the server could not listen on the port
+   */
+  public RoutingServer(BackendInterface backend, int port) throws IOException {
+    this.backend = backend;
+    server = HttpServer.create(new InetSocketAddress(port), 0);
+    executor = AsyncBackend.newQueryExecutor();
+    server.setExecutor(executor);
+    server.createContext("/locations", exchange -> handle(exchange, this::locations));
+    server.createContext("/path", exchange -> handle(exchange, this::path));
+    server.createContext("/travel-times", exchange -> handle(exchange, this::travelTimes));
+    server.createContext("/reachable", exchange -> handle(exchange, this::reachable));
+  }
+
+  /**
+   * Creates a server for the graphs of the provided registry. Every query names the graph it is
+   * answered from with its graph parameter. It does not accept requests until it is started.
+   *
+   * @param registry the graphs that answer the requests
+   * @param port     the port to listen on, or 0 for any free port
+   * @throws IOException if the server could not listen on the port
+   */
+  public RoutingServer(GraphRegistry registry, int port) throws IOException {
+    this((BackendInterface) null, port);
+    this.registry = registry;
+    server.createContext("/graphs", exchange -> handle(exchange, this::graphs));
+  }
+
+  /**
+   * Starts accepting requests.
+   */
+  public void start() {
+    server.start();
+  }
+
+  /**
+   * Stops accepting requests, waits up to the provided time for the requests being handled to
+   * finish, and then stops their threads.
+   *
+   * @param delaySeconds the longest time to wait for requests to finish
+   */
+  public void stop(int delaySeconds) {
+    server.stop(delaySeconds);
+    executor.shutdownNow();
+  }
+
+  /**
+   * Sets the time each request may search for before it is stopped.
+   *
+   * @param millis the deadline of each request in milliseconds
+   */
+  public void setQueryTimeout(long millis) {
+    queryMillis = millis;
+  }
+
+  /**
+   * Returns the port the server listens on, which is useful when it was created with port 0.
+   *
+   * @return the port of this server
+   */
+  public int getPort() {
+    return server.getAddress().getPort();
+  }
+
+  /**
+   * Answers the request for one path. Implementations search with the provided token, write a
+   * JSON value to the provided writer, or throw a RequestException before writing anything if the
+   * request cannot be answered.
+   */
+  protected interface Handler {
+    public void answer(Map<String, String> parameters, CancellationToken token, JsonWriter json)
+        throws IOException;
+  }
+
+  /**
+   * Thrown by a Handler when a request cannot be answered.
+   */
+  protected static class RequestException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    protected int status;
+
+    public RequestException(int status, String message) {
+      super(message);
+      this.status = status;
+    }
+  }
+
+  // answers one request, and sends the response headers once the handler starts writing
+  private void handle(HttpExchange exchange, Handler handler) throws IOException {
+    try (exchange) {
+      if (!exchange.getRequestMethod().equals("GET")) {
+        sendError(exchange, 405, "only GET requests are supported");
+        return;
+      }
+      Map<String, String> parameters = parseQuery(exchange.getRequestURI().getRawQuery());
+      JsonWriter json = new JsonWriter(() -> {
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        // a length of 0 sends the body in chunks as it is written
+        exchange.sendResponseHeaders(200, 0);
+        return exchange.getResponseBody();
+      });
+      try {
+        handler.answer(parameters, CancellationToken.withTimeout(queryMillis), json);
+        json.close();
+      } catch (RequestException e) {
+        sendError(exchange, e.status, e.getMessage());
+      } catch (CancellationException e) {
+        sendError(exchange, 503, "the query took longer than " + queryMillis + " ms");
+      } catch (RuntimeException e) {
+        if (json.isStarted()) {
+          // the status has been sent already, so the client only sees the body end early
+          throw e;
+        }
+        sendError(exchange, 500, String.valueOf(e.getMessage()));
+      }
+    }
+  }
+
+  private void locations(Map<String, String> parameters, CancellationToken token, JsonWriter json)
+      throws IOException {
+    json.beginArray();
+    for (String location : backend(parameters).getListOfAllLocations()) {
+      json.value(location);
+    }
+    json.endArray();
+  }
+
+  private void path(Map<String, String> parameters, CancellationToken token, JsonWriter json)
+      throws IOException {
+    String start = require(parameters, "start");
+    String end = require(parameters, "end");
+    List<String> path = backend(parameters).findShortestPathResult(start, end, token).getNodes();
+    if (path.isEmpty()) {
+      throw new RequestException(404, "there is no path from " + start + " to " + end);
+    }
+    json.beginObject();
+    json.name("start").value(start);
+    json.name("end").value(end);
+    json.name("path").beginArray();
+    for (String location : path) {
+      json.value(location);
+    }
+    json.endArray();
+    json.endObject();
+  }
+
+  private void travelTimes(Map<String, String> parameters, CancellationToken token,
+      JsonWriter json) throws IOException {
+    String start = require(parameters, "start");
+    String end = require(parameters, "end");
+    PathResult<String> result = backend(parameters).findShortestPathResult(start, end, token);
+    if (result.isEmpty()) {
+      throw new RequestException(404, "there is no path from " + start + " to " + end);
+    }
+    json.beginObject();
+    json.name("start").value(start);
+    json.name("end").value(end);
+    json.name("totalSeconds").value(result.getTotalCost());
+    json.name("legs").beginArray();
+    List<String> nodes = result.getNodes();
+    List<Double> legCosts = result.getLegCosts();
+    for (int i = 0; i < legCosts.size(); i++) {
+      json.beginObject();
+      json.name("from").value(nodes.get(i));
+      json.name("to").value(nodes.get(i + 1));
+      json.name("seconds").value(legCosts.get(i));
+      json.name("cumulativeSeconds").value(result.getCumulativeCosts().get(i + 1));
+      json.endObject();
+    }
+    json.endArray();
+    json.endObject();
+  }
+
+  private void reachable(Map<String, String> parameters, CancellationToken token, JsonWriter json)
+      throws IOException {
+    String start = require(parameters, "start");
+    double seconds;
+    try {
+      seconds = Double.parseDouble(require(parameters, "seconds"));
+    } catch (NumberFormatException e) {
+      throw new RequestException(400, "seconds must be a number");
+    }
+    if (!(seconds >= 0) || Double.isInfinite(seconds)) {
+      throw new RequestException(400, "seconds must be finite and not negative");
+    }
+    BackendInterface backend = backend(parameters);
+    if (!backend.containsLocation(start)) {
+      throw new RequestException(404, "the location " + start + " could not be found");
+    }
+    List<String> locations = backend.getReachableLocations(start, seconds, token);
+    json.beginObject();
+    json.name("start").value(start);
+    json.name("seconds").value(seconds);
+    json.name("locations").beginArray();
+    for (String location : locations) {
+      json.value(location);
+    }
+    json.endArray();
+    json.endObject();
+  }
+
+  private void graphs(Map<String, String> parameters, CancellationToken token, JsonWriter json)
+      throws IOException {
+    json.beginArray();
+    for (String graph : registry.getGraphNames()) {
+      json.value(graph);
+    }
+    json.endArray();
+  }
+
+  // returns the backend a request is answered from: the only one, or the graph the request names
+  private BackendInterface backend(Map<String, String> parameters) {
+    if (registry == null) {
+      return backend;
+    }
+    String graph = require(parameters, "graph");
+    try {
+      return registry.get(graph);
+    } catch (NoSuchElementException e) {
+      throw new RequestException(404, "the graph " + graph + " is not loaded");
+    }
+  }
+
+  private static String require(Map<String, String> parameters, String name) {
+    String value = parameters.get(name);
+    if (value == null || value.isEmpty()) {
+      throw new RequestException(400, "the parameter " + name + " is missing");
+    }
+    return value;
+  }
+
+  /**
+   * Decodes the parameters of a URL query string.
+   *
+   * @param query the raw query string of a request URI, or null if it has none
+   * @return the value of each parameter, by name
+   */
+  protected static Map<String, String> parseQuery(String query) {
+    Map<String, String> parameters = new HashMap<>();
+    if (query == null) {
+      return parameters;
+    }
+    for (String parameter : query.split("&")) {
+      int equals = parameter.indexOf('=');
+      String name = equals < 0 ? parameter : parameter.substring(0, equals);
+      String value = equals < 0 ? "" : parameter.substring(equals + 1);
+      parameters.put(URLDecoder.decode(name, StandardCharsets.UTF_8),
+          URLDecoder.decode(value, StandardCharsets.UTF_8));
+    }
+    return parameters;
+  }
+
+  private static void sendError(HttpExchange exchange, int status, String message)
+      throws IOException {
+    StringBuilder text = new StringBuilder();
+    new JsonWriter(text).beginObject().name("error").value(message).endObject();
+    byte[] body = text.toString().getBytes(StandardCharsets.UTF_8);
+    exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+    exchange.sendResponseHeaders(status, body.length);
+    exchange.getResponseBody().write(body);
+  }
+
+  /**
+   * Loads a graph file into a Backend and serves it until the process is stopped. Several graphs
+   * are served from a GraphRegistry instead when they are passed as NAME=FILE arguments.
+   *
+   * @param args the port to listen on, followed by the dot or binary graph file to load, which
+   *             default to 8080 and campus.dot, or by any number of NAME=FILE graphs
+   * @throws IOException if a graph file could not be loaded or the port is taken
+   */
+  public static void main(String[] args) throws IOException {
+    // a chunked response ends with a separate tiny write, which without TCP_NODELAY waits for the
+    // client's delayed acknowledgement of the previous one, adding 40ms to every request. The
+    // property is read once, when the first server is created, so it is set before that.
+    if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+      System.setProperty("sun.net.httpserver.nodelay", "true");
+    }
+    int port = args.length > 0 ? Integer.parseInt(args[0]) : 8080;
+    if (args.length > 1 && args[1].contains("=")) {
+      GraphRegistry registry = new GraphRegistry();
+      for (int i = 1; i < args.length; i++) {
+        int split = args[i].indexOf('=');
+        registry.load(args[i].substring(0, split), args[i].substring(split + 1));
+      }
+      RoutingServer server = new RoutingServer(registry, port);
+      server.start();
+      System.out.println("Serving " + registry.getGraphNames() + " on port " + server.getPort());
+      return;
+    }
+    String filename = args.length > 1 ? args[1] : "campus.dot";
+    Backend backend = new Backend(new ConcurrentGraph<String>());
+    backend.loadGraphData(filename);
+    RoutingServer server = new RoutingServer(backend, port);
+    server.start();
+    System.out.println("Serving " + filename + " on port " + server.getPort());
+  }
+
+}
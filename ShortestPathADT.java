@@ -0,0 +1,134 @@
+import java.util.Collection;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CancellationException;
+
+/**
+ * This ADT represents the read-only shortest path queries that can be answered about a directed
+ * graph with non-negative edge weights. It is implemented by mutable graphs like DijkstraGraph as
+ * well as by read-only structures that are built from them for faster queries.
+ *
+ * @param NodeType is the data type stored at each graph node
+ */
+public interface ShortestPathADT<NodeType> {
+
+  /**
+   * Returns the list of data values from nodes along the shortest path from the node with the
+   * provided start value through the node with the provided end value. This list of data values
+   * starts with the start value, ends with the end value, and contains intermediary values in the
+   * order they are encountered while traversing this shorteset path.
+   *
+   * @param start the data item in the starting node for the path
+   * @param end the data item in the destination node for the path
+   * @return list of data item from node along this shortest path, or an empty list if there is no
+   *     such path
+   */
+  public List<NodeType> shortestPathData(NodeType start, NodeType end);
+
+  /**
+   * Returns the cost of the path (sum over edge weights) of the shortest path from the node
+   * containing the start data to the node containing the end data.
+   *
+   * @param start the data item in the starting node for the path
+   * @param end the data item in the destination node for the path
+   * @return the cost of the shortest path between these nodes
+   * @throws NoSuchElementException if either node is not found or there is no path between them
+   */
+  public double shortestPathCost(NodeType start, NodeType end);
+
+  /**
+   * Returns the nodes, edge weights and cumulative costs along the shortest path from the node
+   * containing the start data to the node containing the end data. Everything in the result comes
+   * from one search, so callers that need both the path and the cost of each of its legs should
+   * prefer this method over shortestPathData followed by edge or cost lookups.
+   *
+   * @param start the data item in the starting node for the path
+   * @param end the data item in the destination node for the path
+   * @return the PathResult of the shortest path between these nodes, which is empty if either node
+   *     is not found or there is no path between them
+   */
+  public PathResult<NodeType> shortestPathResult(NodeType start, NodeType end);
+
+  /**
+   * Returns the shortest paths from the node containing the start data to every node that can be
+   * reached from it. All of these paths are computed by a single search, so callers that need
+   * paths or costs to many destinations should prefer this method over repeated calls to
+   * shortestPathData or shortestPathCost.
+   *
+   * @param start the data item in the starting node for the paths
+   * @return the tree of shortest paths rooted at start
+   * @throws NoSuchElementException if start is not found within this graph
+   */
+  public ShortestPathTree<NodeType> shortestPathTree(NodeType start);
+
+  /**
+   * Returns the shortest paths from the node containing the start data to every node that can be
+   * reached from it with a path cost of at most maxCost. The search stops as soon as no cheaper
+   * paths remain, so it only explores the part of the graph within that budget.
+   *
+   * @param start the data item in the starting node for the paths
+   * @param maxCost the largest path cost to include in the returned tree, or
+   *     Double.POSITIVE_INFINITY to include every node that can be reached
+   * @return the tree of shortest paths rooted at start, limited to nodes within maxCost
+   * @throws NoSuchElementException if start is not found within this graph
+   * @throws IllegalArgumentException if maxCost is negative or NaN
+   */
+  public ShortestPathTree<NodeType> shortestPathTree(NodeType start, double maxCost);
+
+  /**
+   * Returns the same result as shortestPathResult(start, end), but stops searching once the
+   * provided token is cancelled or its deadline passes. Implementations whose searches can take
+   * long check the token as they search; the others only check it before they start.
+   *
+   * @param start the data item in the starting node for the path
+   * @param end the data item in the destination node for the path
+   * @param token the token that stops the search
+   * @return the PathResult of the shortest path between these nodes, which is empty if either node
+   *     is not found or there is no path between them
+   * @throws CancellationException if the token stopped the search
+   */
+  public default PathResult<NodeType> shortestPathResult(NodeType start, NodeType end,
+      CancellationToken token) {
+    token.throwIfCancelled();
+    return shortestPathResult(start, end);
+  }
+
+  /**
+   * Returns the same tree as shortestPathTree(start, maxCost), but stops searching once the
+   * provided token is cancelled or its deadline passes.
+   *
+   * @param start the data item in the starting node for the paths
+   * @param maxCost the largest path cost to include in the returned tree
+   * @param token the token that stops the search
+   * @return the tree of shortest paths rooted at start, limited to nodes within maxCost
+   * @throws NoSuchElementException if start is not found within this graph
+   * @throws IllegalArgumentException if maxCost is negative or NaN
+   * @throws CancellationException if the token stopped the search
+   */
+  public default ShortestPathTree<NodeType> shortestPathTree(NodeType start, double maxCost,
+      CancellationToken token) {
+    token.throwIfCancelled();
+    return shortestPathTree(start, maxCost);
+  }
+
+  /**
+   * Returns a tree of shortest paths from the node containing the start data that holds every one
+   * of the provided targets that can be reached from it. Implementations that search from start
+   * stop once all of these targets are settled, so the tree may leave out nodes that are farther
+   * away than the farthest target; the others return the same tree as shortestPathTree(start).
+   * Targets that are not found within this graph are ignored.
+   *
+   * @param start the data item in the starting node for the paths
+   * @param targets the data items in the nodes whose paths are needed
+   * @param token the token that stops the search
+   * @return a tree of shortest paths rooted at start, holding every reachable target
+   * @throws NoSuchElementException if start is not found within this graph
+   * @throws CancellationException if the token stopped the search
+   */
+  public default ShortestPathTree<NodeType> shortestPathTree(NodeType start,
+      Collection<NodeType> targets, CancellationToken token) {
+    token.throwIfCancelled();
+    return shortestPathTree(start);
+  }
+
+}
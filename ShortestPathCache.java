@@ -0,0 +1,213 @@
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * This ShortestPathCache class remembers the results of recent point to point
+ * shortest path queries, so that repeated queries for the same start and end
+ * are answered without searching the graph again. Each result is tagged with
+ * the version of the graph it was computed on, and a result is only returned
+ * while the graph is still at that version, so changes to the graph are never
+ * answered with a stale path.
+ *
+ * The cache holds at most capacity results. When it is full, the least
+ * recently used result (LRU) or the oldest result (FIFO) is evicted, depending
+ * on the configured EvictionPolicy. All methods are synchronized, so one cache
+ * can be shared by several threads.
+ */
+public class ShortestPathCache<NodeType> {
+
+    /**
+     * Selects which result is evicted when a full cache stores a new one.
+     */
+    public enum EvictionPolicy {
+        // evict the result that was looked up least recently
+        LRU,
+        // evict the result that was stored first
+        FIFO
+    }
+
+    // a cached result and the version of the graph it was computed on
+    private static class Entry<NodeType> {
+        private final PathResult<NodeType> result;
+        private final long version;
+
+        private Entry(PathResult<NodeType> result, long version) {
+            this.result = result;
+            this.version = version;
+        }
+    }
+
+    // results are keyed by their start and end data
+    private static class Key {
+        private final Object start;
+        private final Object end;
+
+        private Key(Object start, Object end) {
+            this.start = start;
+            this.end = end;
+        }
+
+        public boolean equals(Object other) {
+            if (!(other instanceof Key))
+                return false;
+            Key key = (Key) other;
+            return Objects.equals(start, key.start) && Objects.equals(end, key.end);
+        }
+
+        public int hashCode() {
+            return 31 * Objects.hashCode(start) + Objects.hashCode(end);
+        }
+    }
+
+    protected int capacity;
+    protected EvictionPolicy policy;
+    protected Map<Key, Entry<NodeType>> entries;
+    protected long hits = 0;
+    protected long misses = 0;
+    protected long evictions = 0;
+
+    /**
+     * Creates an empty cache that evicts the least recently used result.
+     *
+     * @param capacity the largest number of results to hold
+     * @throws IllegalArgumentException if capacity is less than 1
+     */
+    public ShortestPathCache(int capacity) {
+        this(capacity, EvictionPolicy.LRU);
+    }
+
+    /**
+     * Creates an empty cache with the provided eviction policy.
+     *
+     * @param capacity the largest number of results to hold
+     * @param policy   which result to evict when the cache is full
+     * @throws IllegalArgumentException if capacity is less than 1
+     */
+    public ShortestPathCache(int capacity, EvictionPolicy policy) {
+        if (capacity < 1)
+            throw new IllegalArgumentException("capacity must be at least 1");
+        this.capacity = capacity;
+        this.policy = policy;
+        // an access ordered LinkedHashMap keeps the least recently used entry first
+        this.entries = new LinkedHashMap<>(16, 0.75f, policy == EvictionPolicy.LRU) {
+            protected boolean removeEldestEntry(Map.Entry<Key, Entry<NodeType>> eldest) {
+                if (size() <= ShortestPathCache.this.capacity)
+                    return false;
+                evictions++;
+                return true;
+            }
+        };
+    }
+
+    /**
+     * Looks up the result for a start and end. Results computed on a
+     * different version of the graph are dropped and count as misses.
+     *
+     * @param start   the data item in the starting node for the path
+     * @param end     the data item in the destination node for the path
+     * @param version the current version of the graph
+     * @return the cached result, or null if there is none for this version
+     */
+    public synchronized PathResult<NodeType> get(NodeType start, NodeType end, long version) {
+        Key key = new Key(start, end);
+        Entry<NodeType> entry = entries.get(key);
+        if (entry != null && entry.version != version) {
+            entries.remove(key);
+            entry = null;
+        }
+        if (entry == null)
+            misses++;
+        else
+            hits++;
+        return entry == null ? null : entry.result;
+    }
+
+    /**
+     * Stores the result for a start and end, evicting another result when the
+     * cache is full.
+     *
+     * @param start   the data item in the starting node for the path
+     * @param end     the data item in the destination node for the path
+     * @param version the version of the graph the result was computed on
+     * @param result  the shortest path, which is empty if there is no path
+     */
+    public synchronized void put(NodeType start, NodeType end, long version,
+            PathResult<NodeType> result) {
+        entries.put(new Key(start, end), new Entry<>(result, version));
+    }
+
+    /**
+     * Removes every result from the cache. The hit, miss and eviction counts
+     * are kept.
+     */
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    /**
+     * Return the number of results in the cache.
+     *
+     * @return the number of cached results
+     */
+    public synchronized int getSize() {
+        return entries.size();
+    }
+
+    /**
+     * Return the largest number of results the cache holds.
+     *
+     * @return the capacity of the cache
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Return the eviction policy of the cache.
+     *
+     * @return the policy used to choose which result to evict
+     */
+    public EvictionPolicy getPolicy() {
+        return policy;
+    }
+
+    /**
+     * Return the number of lookups answered from the cache.
+     *
+     * @return the number of hits
+     */
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    /**
+     * Return the number of lookups that found no result for the current
+     * version of the graph.
+     *
+     * @return the number of misses
+     */
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    /**
+     * Return the number of results evicted to make room for new ones.
+     *
+     * @return the number of evictions
+     */
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    /**
+     * Summarizes the cache's size and counters.
+     *
+     * @return a String with the size, capacity, hits, misses and evictions
+     */
+    public synchronized String toString() {
+        return policy + " cache " + entries.size() + "/" + capacity + ": " + hits + " hits, "
+                + misses + " misses, " + evictions + " evictions";
+    }
+
+}
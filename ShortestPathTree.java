@@ -0,0 +1,174 @@
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * A ShortestPathTree stores the result of a single-source shortest path search: the cost of the
+ * shortest path from one start node to every node that was reached, along with the predecessor of
+ * each of those nodes along its shortest path. Paths to any reached node can be read back from
+ * this tree without running another search.
+ *
+ * @param NodeType is the data type stored at each graph node
+ */
+public class ShortestPathTree<NodeType> {
+
+  // Each reached node stores the cost of its shortest path, the predecessor on that path, and the
+  // weight of the edge leading from that predecessor into the node
+  protected class Entry {
+    public double cost;
+    public NodeType predecessor;
+    public double legCost;
+
+    public Entry(double cost, NodeType predecessor, double legCost) {
+      this.cost = cost;
+      this.predecessor = predecessor;
+      this.legCost = legCost;
+    }
+  }
+
+  protected NodeType source;
+  // reached nodes are kept in the order they were added, which is by increasing cost
+  protected LinkedHashMap<NodeType, Entry> entries = new LinkedHashMap<>();
+
+  /**
+   * Creates an empty tree rooted at the provided source.
+   *
+   * @param source the data item in the starting node of the search
+   */
+  public ShortestPathTree(NodeType source) {
+    this.source = source;
+  }
+
+  /**
+   * Checks that a cost budget can limit a search. A budget of NaN would never stop a search, since
+   * no cost compares as greater than it, and a negative budget would leave out even the start. A
+   * budget of positive infinity is allowed, and does not limit the search.
+   *
+   * @param maxCost the largest path cost to include in a tree
+   * @throws IllegalArgumentException if maxCost is negative or NaN
+   */
+  public static void checkMaxCost(double maxCost) {
+    if (!(maxCost >= 0)) {
+      throw new IllegalArgumentException("maxCost must be a cost of at least 0, not " + maxCost);
+    }
+  }
+
+  /**
+   * Records the shortest path to a node. Nodes should be added in the order they are settled by
+   * the search, and a node's predecessor must be added before the node itself.
+   *
+   * @param node        the data item in the reached node
+   * @param cost        the cost of the shortest path from the source to node
+   * @param predecessor the node before node on that path, or null for the source
+   * @param legCost     the weight of the edge from predecessor to node
+   */
+  protected void add(NodeType node, double cost, NodeType predecessor, double legCost) {
+    entries.put(node, new Entry(cost, predecessor, legCost));
+  }
+
+  /**
+   * Returns the data item in the starting node of this tree.
+   *
+   * @return the source of this tree
+   */
+  public NodeType getSource() {
+    return source;
+  }
+
+  /**
+   * Checks whether a node was reached by the search that built this tree.
+   *
+   * @param node the data item to check for
+   * @return true if a path from the source to node is stored in this tree, or false otherwise
+   */
+  public boolean contains(NodeType node) {
+    return entries.containsKey(node);
+  }
+
+  /**
+   * Returns the number of nodes reached by the search, including the source.
+   *
+   * @return the number of nodes in this tree
+   */
+  public int size() {
+    return entries.size();
+  }
+
+  /**
+   * Returns the cost of the shortest path from the source to the provided node.
+   *
+   * @param node the data item in the destination node
+   * @return the cost of the shortest path to node
+   * @throws NoSuchElementException if node was not reached
+   */
+  public double getCost(NodeType node) {
+    return getEntry(node).cost;
+  }
+
+  /**
+   * Returns the node before the provided node along its shortest path.
+   *
+   * @param node the data item in the destination node
+   * @return the predecessor of node, or null when node is the source
+   * @throws NoSuchElementException if node was not reached
+   */
+  public NodeType getPredecessor(NodeType node) {
+    return getEntry(node).predecessor;
+  }
+
+  /**
+   * Returns the list of data values along the shortest path from the source to the provided node,
+   * starting with the source and ending with node.
+   *
+   * @param node the data item in the destination node
+   * @return list of data items along the shortest path to node
+   * @throws NoSuchElementException if node was not reached
+   */
+  public List<NodeType> getPathTo(NodeType node) {
+    LinkedList<NodeType> path = new LinkedList<>();
+    Entry entry = getEntry(node);
+    path.addFirst(node);
+    while (entry.predecessor != null) {
+      path.addFirst(entry.predecessor);
+      entry = entries.get(entry.predecessor);
+    }
+    return path;
+  }
+
+  /**
+   * Returns the weights of the edges along the shortest path from the source to the provided node,
+   * in the order they are traversed. The returned list is one shorter than getPathTo(node).
+   *
+   * @param node the data item in the destination node
+   * @return list of edge weights along the shortest path to node
+   * @throws NoSuchElementException if node was not reached
+   */
+  public List<Double> getLegCostsTo(NodeType node) {
+    LinkedList<Double> legs = new LinkedList<>();
+    Entry entry = getEntry(node);
+    while (entry.predecessor != null) {
+      legs.addFirst(entry.legCost);
+      entry = entries.get(entry.predecessor);
+    }
+    return legs;
+  }
+
+  /**
+   * Returns every node reached by the search, ordered by increasing cost from the source.
+   *
+   * @return list of all data items in this tree
+   */
+  public List<NodeType> getReachedNodes() {
+    return new ArrayList<>(entries.keySet());
+  }
+
+  protected Entry getEntry(NodeType node) {
+    Entry entry = entries.get(node);
+    if (entry == null)
+      throw new NoSuchElementException("No path from " + source + " to " + node);
+    return entry;
+  }
+
+}